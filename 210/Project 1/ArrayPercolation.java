@@ -1,13 +1,16 @@
+import java.util.Arrays;
+
 import stdlib.In;
 import stdlib.StdOut;
 
 // An implementation of the Percolation API using a 2D array.
 public class ArrayPercolation implements Percolation {
     int n; // n-by-n percolation system
-    boolean[][] open; // open[i][j] = is site (i, j) open?
+    BitGrid open; // open.get(i, j) = is site (i, j) open?
     int openSites; // number of open sites
-    boolean[][] full; // full[i][j] = is site (i, j) full?
-
+    BitGrid full; // full.get(i, j) = is site (i, j) full?
+    boolean percolated; // has some site in the bottom row become full?
+    int[] stack; // work stack of site indices n * i + j used by fill(), reused across calls
 
     // Constructs an n x n percolation system, with all sites blocked.
     public ArrayPercolation(int n) {
@@ -16,16 +19,64 @@ public class ArrayPercolation implements Percolation {
             throw new IllegalArgumentException("Illegal n");
         }
         this.n = n;
-        open = new boolean[n][n];
-        full = new boolean[n][n];
+        open = new BitGrid(n);
+        full = new BitGrid(n);
         openSites = 0;
+        percolated = false;
+        stack = new int[Math.min(n * n, 4 * n)];
     }
 
-    // Opens site (i, j) if it is not already open.
+    // Blocks every site again, clearing the existing storage rather than reallocating it.
+    public void reset() {
+        open.clear();
+        full.clear();
+        openSites = 0;
+        percolated = false;
+    }
+
+    // Opens site (i, j) if it is not already open, and propagates fullness from it.
     public void open(int i, int j) {
         if (!isOpen(i, j)) {
-            open[i][j] = true;
-            openSites++;}
+            open.set(i, j);
+            openSites++;
+            // A newly opened site is full if it is in the top row or next to a full site.
+            if (i == 0 || (i > 0 && full.get(i - 1, j)) || (i < n - 1 && full.get(i + 1, j))
+                    || (j > 0 && full.get(i, j - 1)) || (j < n - 1 && full.get(i, j + 1))) {
+                fill(i, j);
+            }
+        }
+    }
+
+    // Opens the sites (rows[k], cols[k]) that are not already open. All the sites are marked open
+    // first, and fullness is then propagated from the newly opened ones, so each site is filled at
+    // most once for the whole batch.
+    public void openAll(int[] rows, int[] cols) {
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException("rows and cols differ in length");
+        }
+        for (int k = 0; k < rows.length; k++) {
+            if (rows[k] < 0 || rows[k] >= n || cols[k] < 0 || cols[k] >= n) {
+                throw new IndexOutOfBoundsException("Illegal i or j");
+            }
+        }
+        int[] opened = new int[rows.length];
+        int count = 0;
+        for (int k = 0; k < rows.length; k++) {
+            if (!open.get(rows[k], cols[k])) {
+                open.set(rows[k], cols[k]);
+                opened[count++] = k;
+            }
+        }
+        openSites += count;
+        for (int c = 0; c < count; c++) {
+            int i = rows[opened[c]];
+            int j = cols[opened[c]];
+            if (!full.get(i, j) && (i == 0 || (i > 0 && full.get(i - 1, j))
+                    || (i < n - 1 && full.get(i + 1, j)) || (j > 0 && full.get(i, j - 1))
+                    || (j < n - 1 && full.get(i, j + 1)))) {
+                fill(i, j);
+            }
+        }
     }
 
     // Returns true if site (i, j) is open, and false otherwise.
@@ -34,7 +85,7 @@ public class ArrayPercolation implements Percolation {
     if (i < 0 || i >= n || j < 0 || j >= n) {
             throw new IndexOutOfBoundsException("Illegal i or j");
         }
-    return open[i][j];
+    return open.get(i, j);
     }
 
     // Returns true if site (i, j) is full, and false otherwise.
@@ -42,16 +93,8 @@ public class ArrayPercolation implements Percolation {
         if (i < 0 || i >= n || j < 0 || j >= n) {
             throw new IndexOutOfBoundsException("Illegal i or j");
         }
-        // Create a new 'full' array for each isFull query.
-        full = new boolean[n][n];
-        // Call floodFill on every site in the first row.
-        for (int col = 0; col < n; col++) {
-            if (isOpen(0, col)) {
-                floodFill(full, 0, col);
-            }
-        }
-        // Return 'full[i][j]'.
-        return full[i][j];
+        // full is kept up to date by open(), so no flood fill is needed here.
+        return full.get(i, j);
     }
 
 
@@ -63,34 +106,44 @@ public class ArrayPercolation implements Percolation {
 
     // Returns true if this system percolates, and false otherwise.
     public boolean percolates() {
-        // Create a separate boolean array to track fullness for percolation checking.
-    boolean[][] connected = new boolean[n][n];
-    // Check for percolation starting from each site in the top row.
-    for (int j = 0; j < n; j++) {
-        if (!connected[0][j] && isOpen(0, j)) {
-            floodFill(connected, 0, j);
-        }
+        return percolated;
     }
-    // Check if any site in the bottom row is connected to the top row.
-    for (int j = 0; j < n; j++) {
-        if (connected[n - 1][j]) {
-            return true;
+
+    // Marks the open site (i, j) and every open site reachable from it that is not yet full as
+    // full. Runs iteratively on an int work stack, so arbitrarily long open paths cannot overflow
+    // the thread stack; each site is pushed at most once, when it is first marked full.
+    private void fill(int i, int j) {
+        int top = 0;
+        full.set(i, j);
+        stack[top++] = n * i + j;
+        while (top > 0) {
+            int site = stack[--top];
+            int row = site / n;
+            int col = site - row * n;
+            // Make room for up to four neighbours before pushing them.
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, Math.min(n * n + 4, 2 * stack.length + 4));
+            }
+            if (row == n - 1) {
+                percolated = true;
+            } else if (open.get(site + n) && !full.get(site + n)) {
+                full.set(site + n);
+                stack[top++] = site + n;
+            }
+            if (row > 0 && open.get(site - n) && !full.get(site - n)) {
+                full.set(site - n);
+                stack[top++] = site - n;
+            }
+            if (col < n - 1 && open.get(site + 1) && !full.get(site + 1)) {
+                full.set(site + 1);
+                stack[top++] = site + 1;
+            }
+            if (col > 0 && open.get(site - 1) && !full.get(site - 1)) {
+                full.set(site - 1);
+                stack[top++] = site - 1;
+            }
         }
     }
-    return false;
-    }
-     // Recursively flood fills full[][] using depth-first exploration, starting at (i, j).
-    private void floodFill(boolean[][] full, int i, int j) {
-        if (i < 0 || i >= n) return; // outside grid
-        if (j < 0 || j >= n) return; // outside grid
-        if (!isOpen(i, j)) return; // not an open site
-        if (full[i][j]) return; // already marked as full
-        full[i][j] = true;
-        floodFill(full, i + 1, j);
-        floodFill(full, i - 1, j);
-        floodFill(full, i, j + 1);
-        floodFill(full, i, j - 1);
-    }
 
     // Unit tests the data type. [DO NOT EDIT]
     public static void main(String[] args) {
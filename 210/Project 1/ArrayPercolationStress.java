@@ -0,0 +1,30 @@
+import stdlib.StdOut;
+
+// Measures how fast ArrayPercolation propagates fullness through a fully open system. Every site
+// of an n x n system except the top row is opened first, which leaves nothing full; opening one
+// top site then has to fill all of them in a single fill().
+public class ArrayPercolationStress {
+    // Accepts n (default 10000) as a command-line argument, and reports how long opening and
+    // filling the system took.
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        ArrayPercolation perc = new ArrayPercolation(n);
+        long start = System.nanoTime();
+        for (int i = 1; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                perc.open(i, j);
+            }
+        }
+        double openSeconds = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        perc.open(0, 0);
+        double fillSeconds = (System.nanoTime() - start) / 1e9;
+        long filled = (long) n * (n - 1) + 1;
+        StdOut.printf("%d x %d system:\n", n, n);
+        StdOut.printf("  Opened %d sites in %.2f s\n", filled - 1, openSeconds);
+        StdOut.printf("  Filled %d sites in %.2f s (%.0f sites/second)\n", filled, fillSeconds,
+                filled / fillSeconds);
+        StdOut.printf("  Percolates = %b, isFull(%d, %d) = %b\n", perc.percolates(), n - 1, n - 1,
+                perc.isFull(n - 1, n - 1));
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.Arrays;
+
+// A packed n x n grid of bits, used to store site state for the percolation systems. Site (i, j)
+// is bit n * i + j, i.e., the row-major index used by UFPercolation.encode(), and bits are stored
+// 64 to a long.
+public class BitGrid {
+    private final int n; // n-by-n grid
+    private final long[] words; // words[k >>> 6] holds bit k at position k & 63
+
+    // Constructs an n x n grid with all bits cleared.
+    public BitGrid(int n) {
+        this(n, 2);
+    }
+
+    // Constructs a d-dimensional grid of side n (n^d bits) with all bits cleared. Only the flat
+    // index methods apply when d is not 2.
+    public BitGrid(int n, int d) {
+        if (n <= 0 || d <= 0) {
+            throw new IllegalArgumentException("Illegal n or d");
+        }
+        long bits = 1;
+        for (int k = 0; k < d; k++) {
+            bits *= n;
+            if (bits > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Illegal n or d");
+            }
+        }
+        this.n = n;
+        words = new long[(int) ((bits + 63) >>> 6)];
+    }
+
+    // Returns true if the bit for site (i, j) is set, and false otherwise.
+    public boolean get(int i, int j) {
+        return get(n * i + j);
+    }
+
+    // Returns true if bit k is set, and false otherwise.
+    public boolean get(int k) {
+        return (words[k >>> 6] & (1L << k)) != 0;
+    }
+
+    // Sets the bit for site (i, j).
+    public void set(int i, int j) {
+        set(n * i + j);
+    }
+
+    // Sets bit k.
+    public void set(int k) {
+        words[k >>> 6] |= 1L << k;
+    }
+
+    // Clears every bit, keeping the storage.
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+}
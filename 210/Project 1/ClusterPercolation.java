@@ -0,0 +1,117 @@
+import java.util.Arrays;
+
+import stdlib.In;
+import stdlib.StdOut;
+
+// A UFPercolation that also keeps cluster statistics: the number of clusters (components of open
+// sites), the size of the largest one, and a histogram of cluster sizes. They are updated on every
+// open and union, so use plain UFPercolation (as PercolationStats does) when they are not needed.
+public class ClusterPercolation extends UFPercolation {
+    int clusterCount;  // Number of clusters
+    int largestCluster;  // Size of the largest cluster
+    int distinctSizes;  // Number of s for which histogram[s] > 0
+    int[] histogram;  // histogram[s] = number of clusters of size s
+
+    // Constructs an n x n percolation system, with all sites blocked, backed by GridUF.
+    public ClusterPercolation(int n) {
+        this(n, false);
+    }
+
+    // Constructs an n x n percolation system, with all sites blocked, backed by
+    // dsa.WeightedQuickUnionUF if useDsa is true and by GridUF otherwise.
+    public ClusterPercolation(int n, boolean useDsa) {
+        super(n, useDsa);
+        histogram = new int[n * n + 1];
+    }
+
+    // Blocks every site again, clearing the existing storage rather than reallocating it.
+    public void reset() {
+        super.reset();
+        clusterCount = 0;
+        largestCluster = 0;
+        distinctSizes = 0;
+        Arrays.fill(histogram, 0);
+    }
+
+    // Returns the number of clusters (components of open sites).
+    public int clusterCount() {
+        return clusterCount;
+    }
+
+    // Returns the size of the largest cluster, or 0 if no site is open.
+    public int largestCluster() {
+        return largestCluster;
+    }
+
+    // Returns the size of the cluster containing site (i, j), or 0 if the site is blocked.
+    public int clusterSize(int i, int j) {
+        return isOpen(i, j) ? uf.size(encode(i, j)) : 0;
+    }
+
+    // Returns the number of clusters of size s.
+    public int clustersOfSize(int s) {
+        return s < 1 || s > n * n ? 0 : histogram[s];
+    }
+
+    // Returns the distinct cluster sizes, in ascending order.
+    public int[] clusterSizes() {
+        int[] sizes = new int[distinctSizes];
+        int k = 0;
+        for (int s = 1; s <= largestCluster; s++) {
+            if (histogram[s] > 0) {
+                sizes[k++] = s;
+            }
+        }
+        return sizes;
+    }
+
+    // Records the newly opened site as a cluster of its own.
+    void opened(int site) {
+        clusterCount++;
+        largestCluster = Math.max(largestCluster, 1);
+        count(1, 1);
+    }
+
+    // Merges the statistics of the clusters rooted at rootP and rootQ.
+    void merging(int rootP, int rootQ) {
+        int sizeP = uf.size(rootP);
+        int sizeQ = uf.size(rootQ);
+        clusterCount--;
+        largestCluster = Math.max(largestCluster, sizeP + sizeQ);
+        count(sizeP, -1);
+        count(sizeQ, -1);
+        count(sizeP + sizeQ, 1);
+    }
+
+    // Adds delta to the number of clusters of size s.
+    private void count(int s, int delta) {
+        if (histogram[s] == 0) {
+            distinctSizes++;
+        }
+        histogram[s] += delta;
+        if (histogram[s] == 0) {
+            distinctSizes--;
+        }
+    }
+
+    // Unit tests the data type.
+    public static void main(String[] args) {
+        String filename = args[0];
+        In in = new In(filename);
+        int n = in.readInt();
+        ClusterPercolation perc = new ClusterPercolation(n);
+        while (!in.isEmpty()) {
+            int i = in.readInt();
+            int j = in.readInt();
+            perc.open(i, j);
+        }
+        StdOut.printf("%d x %d system:\n", n, n);
+        StdOut.printf("  Open sites = %d\n", perc.numberOfOpenSites());
+        StdOut.printf("  Percolates = %b\n", perc.percolates());
+        StdOut.printf("  Clusters = %d\n", perc.clusterCount());
+        StdOut.printf("  Largest cluster = %d\n", perc.largestCluster());
+        for (int s : perc.clusterSizes()) {
+            StdOut.printf("  Clusters of size %d = %d\n", s, perc.clustersOfSize(s));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// An implementation of the Percolation API that may be read while it is being opened. open() is
+// synchronized, so writers take turns, but isOpen(), isFull(), percolates() and
+// numberOfOpenSites() never lock: they read atomic bit words and volatile fields that only ever
+// go from false to true (or grow), so a reader sees the state as of some recent open().
+//
+// Fullness is propagated incrementally from each newly opened site, as in ArrayPercolation,
+// rather than kept in a union-find, whose path compression would make concurrent reads unsafe.
+public class ConcurrentPercolation implements Percolation {
+    int n; // n-by-n percolation system
+    AtomicLongArray open; // bit n * i + j = is site (i, j) open?
+    AtomicLongArray full; // bit n * i + j = is site (i, j) full?
+    volatile int openSites; // number of open sites
+    volatile boolean percolated; // has some site in the bottom row become full?
+    int[] stack; // work stack of site indices used by fill(), only touched by the writer
+
+    // Constructs an n x n percolation system, with all sites blocked.
+    public ConcurrentPercolation(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Illegal n");
+        }
+        this.n = n;
+        int words = (int) (((long) n * n + 63) >>> 6);
+        open = new AtomicLongArray(words);
+        full = new AtomicLongArray(words);
+        stack = new int[Math.min(n * n, 4 * n)];
+    }
+
+    // Opens site (i, j) if it is not already open, and propagates fullness from it.
+    public synchronized void open(int i, int j) {
+        validate(i, j);
+        int site = n * i + j;
+        if (get(open, site)) {
+            return;
+        }
+        set(open, site);
+        openSites++;
+        // A newly opened site is full if it is in the top row or next to a full site.
+        if (i == 0 || (i > 0 && get(full, site - n)) || (i < n - 1 && get(full, site + n))
+                || (j > 0 && get(full, site - 1)) || (j < n - 1 && get(full, site + 1))) {
+            fill(site);
+        }
+    }
+
+    // Returns true if site (i, j) is open, and false otherwise.
+    public boolean isOpen(int i, int j) {
+        validate(i, j);
+        return get(open, n * i + j);
+    }
+
+    // Returns true if site (i, j) is full, and false otherwise.
+    public boolean isFull(int i, int j) {
+        validate(i, j);
+        return get(full, n * i + j);
+    }
+
+    // Returns the number of open sites.
+    public int numberOfOpenSites() {
+        return openSites;
+    }
+
+    // Returns true if this system percolates, and false otherwise.
+    public boolean percolates() {
+        return percolated;
+    }
+
+    // Marks the open site and every open site reachable from it that is not yet full as full,
+    // on an int work stack. Each site is pushed at most once, when it is first marked full.
+    private void fill(int site) {
+        int top = 0;
+        set(full, site);
+        stack[top++] = site;
+        while (top > 0) {
+            site = stack[--top];
+            int row = site / n;
+            int col = site - row * n;
+            // Make room for up to four neighbours before pushing them.
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, Math.min(n * n + 4, 2 * stack.length + 4));
+            }
+            if (row == n - 1) {
+                percolated = true;
+            } else if (get(open, site + n) && !get(full, site + n)) {
+                set(full, site + n);
+                stack[top++] = site + n;
+            }
+            if (row > 0 && get(open, site - n) && !get(full, site - n)) {
+                set(full, site - n);
+                stack[top++] = site - n;
+            }
+            if (col < n - 1 && get(open, site + 1) && !get(full, site + 1)) {
+                set(full, site + 1);
+                stack[top++] = site + 1;
+            }
+            if (col > 0 && get(open, site - 1) && !get(full, site - 1)) {
+                set(full, site - 1);
+                stack[top++] = site - 1;
+            }
+        }
+    }
+
+    // Returns true if bit k of bits is set, and false otherwise.
+    private static boolean get(AtomicLongArray bits, int k) {
+        return (bits.get(k >>> 6) & (1L << k)) != 0;
+    }
+
+    // Sets bit k of bits. Only called by the writer, so a plain read-modify-write cannot lose an
+    // update; the volatile write publishes it to readers.
+    private static void set(AtomicLongArray bits, int k) {
+        bits.set(k >>> 6, bits.get(k >>> 6) | (1L << k));
+    }
+
+    // Throws an IndexOutOfBoundsException unless (i, j) is a site of this system.
+    private void validate(int i, int j) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("Illegal i or j");
+        }
+    }
+
+    // A thread that sweeps the sites of a system until told to stop, checking that every full
+    // site it sees is open and that the number of open sites never goes down.
+    private static class Reader extends Thread {
+        private final ConcurrentPercolation perc;
+        private volatile boolean done;
+        private boolean ok = true;
+        private long reads;
+
+        public Reader(ConcurrentPercolation perc) {
+            this.perc = perc;
+        }
+
+        public void run() {
+            int n = perc.n;
+            int last = 0;
+            int site = 0;
+            while (!done) {
+                int i = site / n;
+                int j = site % n;
+                // Fullness is published after openness, so read it first.
+                if (perc.isFull(i, j) && !perc.isOpen(i, j)) {
+                    ok = false;
+                }
+                int openSites = perc.numberOfOpenSites();
+                if (openSites < last) {
+                    ok = false;
+                }
+                last = openSites;
+                reads++;
+                site = site == n * n - 1 ? 0 : site + 1;
+            }
+        }
+    }
+
+    // Unit tests the data type. One writer opens random sites of an n x n system until it
+    // percolates, while r readers check the invariants that lock-free reads rely on.
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int r = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        ConcurrentPercolation perc = new ConcurrentPercolation(n);
+        Reader[] readers = new Reader[r];
+        for (int k = 0; k < r; k++) {
+            readers[k] = new Reader(perc);
+            readers[k].start();
+        }
+        long start = System.nanoTime();
+        long opens = 0;
+        while (!perc.percolates()) {
+            perc.open(StdRandom.uniform(n), StdRandom.uniform(n));
+            opens++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        boolean ok = true;
+        long reads = 0;
+        for (Reader reader : readers) {
+            reader.done = true;
+            reader.join();
+            ok &= reader.ok;
+            reads += reader.reads;
+        }
+        StdOut.printf("%d x %d system percolates after %d open sites\n", n, n,
+                perc.numberOfOpenSites());
+        StdOut.printf("  Writer: %.0f opens/second\n", opens / seconds);
+        StdOut.printf("  %d readers: %.0f site checks/second\n", r, reads / seconds);
+        StdOut.println("  Invariants held? " + ok);
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.Arrays;
+
+// A union-find specialised for percolation grids: sites are plain ints backed by two int arrays,
+// components are merged by size, and find() halves the path it walks, so that every operation
+// runs in nearly constant amortized time.
+public class GridUF implements UF {
+    private final int[] parent; // parent[p] = parent of site p
+    private final int[] size; // size[r] = number of sites in the component rooted at r
+
+    // Constructs a union-find over sites 0 through n - 1, each in its own component.
+    public GridUF(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Illegal n");
+        }
+        parent = new int[n];
+        size = new int[n];
+        reset();
+    }
+
+    // Returns the number of sites in the component containing site p.
+    public int size(int p) {
+        return size[find(p)];
+    }
+
+    // Puts every site back in its own component, reusing the arrays.
+    public void reset() {
+        for (int p = 0; p < parent.length; p++) {
+            parent[p] = p;
+        }
+        Arrays.fill(size, 1);
+    }
+
+    // Returns the canonical site of the component containing site p.
+    public int find(int p) {
+        while (p != parent[p]) {
+            // Path halving: point p at its grandparent and move there.
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // Merges the components containing sites p and q, attaching the smaller under the larger.
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        if (size[rootP] < size[rootQ]) {
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+        } else {
+            parent[rootQ] = rootP;
+            size[rootP] += size[rootQ];
+        }
+    }
+
+    // Returns true if sites p and q are in the same component, and false otherwise.
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+}
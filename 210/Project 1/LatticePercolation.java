@@ -0,0 +1,188 @@
+import java.util.Arrays;
+
+// A percolation system on a d-dimensional cubic lattice of side n, in which each site is adjacent
+// to its 2d axis neighbours. The system percolates along axis 0: from the face x[0] = 0 (the top)
+// to the face x[0] = n - 1 (the bottom). If periodic, the other axes wrap around, so the lattice
+// is a torus in every direction across the flow.
+//
+// Sites are addressed either by their coordinates x[0..d-1] or by the flat index
+// x[0] * n^(d-1) + x[1] * n^(d-2) + ... + x[d-1], which for d = 2 is the row-major index that
+// BitGrid uses. Open sites are kept in a BitGrid and clusters in a GridUF without virtual sites;
+// per-root bits record which clusters reach the top and the bottom, so isFull() is free of
+// backwash and percolates() is a flag.
+public class LatticePercolation {
+    int n; // side of the lattice
+    int d; // number of dimensions
+    boolean periodic; // do the axes other than axis 0 wrap around?
+    int sites; // number of sites, n^d
+    int[] stride; // stride[k] = n^(d-1-k), the flat index step along axis k
+    int openSites; // number of open sites
+    boolean percolated; // does some cluster reach both the top and the bottom?
+    BitGrid open; // open.get(s) = is site s open?
+    BitGrid top; // top.get(r) = does the cluster rooted at r reach the top face?
+    BitGrid bottom; // bottom.get(r) = does the cluster rooted at r reach the bottom face?
+    GridUF uf; // union-find over the sites
+
+    // Constructs a d-dimensional lattice of side n, with all sites blocked.
+    public LatticePercolation(int n, int d, boolean periodic) {
+        open = new BitGrid(n, d); // validates n and d
+        this.n = n;
+        this.d = d;
+        this.periodic = periodic;
+        stride = new int[d];
+        stride[d - 1] = 1;
+        for (int k = d - 2; k >= 0; k--) {
+            stride[k] = stride[k + 1] * n;
+        }
+        sites = stride[0] * n;
+        top = new BitGrid(n, d);
+        bottom = new BitGrid(n, d);
+        uf = new GridUF(sites);
+    }
+
+    // Blocks every site again, clearing the existing storage rather than reallocating it.
+    public void reset() {
+        open.clear();
+        top.clear();
+        bottom.clear();
+        uf.reset();
+        openSites = 0;
+        percolated = false;
+    }
+
+    // Returns the number of sites in the lattice.
+    public int sites() {
+        return sites;
+    }
+
+    // Returns the flat index of the site with coordinates x.
+    public int encode(int... x) {
+        if (x.length != d) {
+            throw new IllegalArgumentException("Illegal number of coordinates");
+        }
+        int site = 0;
+        for (int k = 0; k < d; k++) {
+            if (x[k] < 0 || x[k] >= n) {
+                throw new IndexOutOfBoundsException("Illegal coordinate");
+            }
+            site += x[k] * stride[k];
+        }
+        return site;
+    }
+
+    // Returns the coordinates of the site with flat index site.
+    public int[] decode(int site) {
+        validate(site);
+        int[] x = new int[d];
+        for (int k = 0; k < d; k++) {
+            x[k] = site / stride[k] % n;
+        }
+        return x;
+    }
+
+    // Opens the site with coordinates x if it is not already open.
+    public void open(int... x) {
+        open(encode(x));
+    }
+
+    // Opens the site with flat index site if it is not already open.
+    public void open(int site) {
+        validate(site);
+        if (open.get(site)) {
+            return;
+        }
+        open.set(site);
+        openSites++;
+        int first = site / stride[0];
+        if (first == 0) {
+            top.set(site);
+        }
+        if (first == n - 1) {
+            bottom.set(site);
+        }
+        for (int k = 0; k < d; k++) {
+            int c = site / stride[k] % n;
+            if (c > 0) {
+                connect(site, site - stride[k]);
+            } else if (periodic && k > 0) {
+                connect(site, site + (n - 1) * stride[k]);
+            }
+            if (c < n - 1) {
+                connect(site, site + stride[k]);
+            } else if (periodic && k > 0) {
+                connect(site, site - (n - 1) * stride[k]);
+            }
+        }
+        int root = uf.find(site);
+        if (top.get(root) && bottom.get(root)) {
+            percolated = true;
+        }
+    }
+
+    // Returns true if the site with coordinates x is open, and false otherwise.
+    public boolean isOpen(int... x) {
+        return open.get(encode(x));
+    }
+
+    // Returns true if the site with flat index site is open, and false otherwise.
+    public boolean isOpen(int site) {
+        validate(site);
+        return open.get(site);
+    }
+
+    // Returns true if the site with coordinates x is full, and false otherwise.
+    public boolean isFull(int... x) {
+        return isFull(encode(x));
+    }
+
+    // Returns true if the site with flat index site is full, and false otherwise.
+    public boolean isFull(int site) {
+        return isOpen(site) && top.get(uf.find(site));
+    }
+
+    // Returns the number of open sites.
+    public int numberOfOpenSites() {
+        return openSites;
+    }
+
+    // Returns true if this system percolates, and false otherwise.
+    public boolean percolates() {
+        return percolated;
+    }
+
+    // Returns a string representation of this system's shape.
+    public String toString() {
+        int[] shape = new int[d];
+        Arrays.fill(shape, n);
+        return Arrays.toString(shape) + (periodic ? " periodic" : "");
+    }
+
+    // Unions the open site p with site q if q is open, carrying over the top and bottom bits.
+    private void connect(int p, int q) {
+        if (!open.get(q)) {
+            return;
+        }
+        int rootP = uf.find(p);
+        int rootQ = uf.find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        boolean reachesTop = top.get(rootP) || top.get(rootQ);
+        boolean reachesBottom = bottom.get(rootP) || bottom.get(rootQ);
+        uf.union(rootP, rootQ);
+        int root = uf.find(rootP);
+        if (reachesTop) {
+            top.set(root);
+        }
+        if (reachesBottom) {
+            bottom.set(root);
+        }
+    }
+
+    // Throws an IndexOutOfBoundsException unless site is a valid flat index.
+    private void validate(int site) {
+        if (site < 0 || site >= sites) {
+            throw new IndexOutOfBoundsException("Illegal site");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.SplittableRandom;
+
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// Estimates the percolation threshold of a d-dimensional lattice of side n, in the manner of
+// PercolationStats. Each experiment opens the sites of a LatticePercolation in a random order
+// until it percolates; one system and one permutation array are reused for every experiment.
+public class LatticePercolationStats {
+    int m; // number of experiments
+    double mean; // running mean of the percolation thresholds
+    double squares; // running sum of squared deviations from the mean (Welford)
+
+    // Performs m independent experiments on a d-dimensional lattice of side n, seeded from
+    // StdRandom.
+    public LatticePercolationStats(int n, int d, boolean periodic, int m) {
+        this(n, d, periodic, m, StdRandom.uniform(Integer.MAX_VALUE));
+    }
+
+    // Performs m independent experiments on a d-dimensional lattice of side n, drawing sites from
+    // a SplittableRandom seeded with seed.
+    public LatticePercolationStats(int n, int d, boolean periodic, int m, long seed) {
+        if (m <= 0) {
+            throw new IllegalArgumentException("Illegal m");
+        }
+        LatticePercolation perco = new LatticePercolation(n, d, periodic);
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] sites = new int[perco.sites()];
+        for (int t = 0; t < m; t++) {
+            add(trial(perco, random, sites));
+        }
+    }
+
+    // Returns sample mean of percolation threshold.
+    public double mean() {
+        return mean;
+    }
+
+    // Returns sample standard deviation of percolation threshold.
+    public double stddev() {
+        return Math.sqrt(squares / (m - 1));
+    }
+
+    // Returns low endpoint of the 95% confidence interval.
+    public double confidenceLow() {
+        return mean() - ((1.96 * stddev()) / Math.sqrt(m));
+    }
+
+    // Returns high endpoint of the 95% confidence interval.
+    public double confidenceHigh() {
+        return mean() + ((1.96 * stddev()) / Math.sqrt(m));
+    }
+
+    // Folds the threshold x into the running mean and sum of squared deviations.
+    private void add(double x) {
+        m++;
+        double delta = x - mean;
+        mean += delta / m;
+        squares += delta * (x - mean);
+    }
+
+    // Resets perco, opens its sites in the order of a random permutation (shuffled a step at a
+    // time, Fisher-Yates) until it percolates, and returns the fraction of sites opened.
+    private static double trial(LatticePercolation perco, SplittableRandom random, int[] sites) {
+        for (int k = 0; k < sites.length; k++) {
+            sites[k] = k;
+        }
+        perco.reset();
+        for (int k = 0; !perco.percolates(); k++) {
+            int r = k + random.nextInt(sites.length - k);
+            int site = sites[r];
+            sites[r] = sites[k];
+            sites[k] = site;
+            perco.open(site);
+        }
+        return 1.0 * perco.numberOfOpenSites() / sites.length;
+    }
+
+    // Accepts n, d, m and optionally "periodic" as command-line arguments, and reports the
+    // threshold estimate.
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int d = Integer.parseInt(args[1]);
+        int m = Integer.parseInt(args[2]);
+        boolean periodic = args.length > 3 && args[3].equals("periodic");
+        LatticePercolationStats stats = new LatticePercolationStats(n, d, periodic, m);
+        StdOut.printf("Percolation threshold for a %d^%d lattice%s:\n", n, d,
+                periodic ? " (periodic)" : "");
+        StdOut.printf("  Mean                = %.3f\n", stats.mean());
+        StdOut.printf("  Standard deviation  = %.3f\n", stats.stddev());
+        StdOut.printf("  Confidence interval = [%.3f, %.3f]\n", stats.confidenceLow(),
+                stats.confidenceHigh());
+    }
+}
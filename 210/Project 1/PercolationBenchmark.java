@@ -0,0 +1,121 @@
+import java.util.SplittableRandom;
+
+import stdlib.StdOut;
+
+// Times the experiments behind PercolationStats, comparing an optimisation with the code it
+// replaced. Each experiment opens random sites of an n x n UFPercolation until it percolates, and
+// both sides of a comparison draw from the same seeds. Where they draw the same sites, they must
+// agree on the number of open sites in every experiment; otherwise their mean thresholds must be
+// close.
+public class PercolationBenchmark {
+    // Accepts a mode, n (default 2048) and m (default 3) as command-line arguments, and runs m
+    // experiments each way. Mode "percolates" (the default) compares asking whether some site in
+    // the bottom row is full, one site at a time, with UFPercolation.percolates(); mode "order"
+    // compares drawing sites uniformly, including ones that are already open, with opening them
+    // in the order of a random permutation, as PercolationStats does; mode "uf" compares
+    // UFPercolation backed by dsa.WeightedQuickUnionUF with UFPercolation backed by GridUF.
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "percolates";
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 2048;
+        int m = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        UFPercolation perc = new UFPercolation(n);
+        StdOut.printf("%d experiments on a %d x %d system:\n", m, n, n);
+        if (mode.equals("percolates")) {
+            long sites = 0;
+            long start = System.nanoTime();
+            for (int t = 0; t < m; t++) {
+                sites += uniformTrial(perc, n, new SplittableRandom(t), true);
+            }
+            report("bottom-row scan", m, System.nanoTime() - start);
+            long flagSites = 0;
+            start = System.nanoTime();
+            for (int t = 0; t < m; t++) {
+                flagSites += uniformTrial(perc, n, new SplittableRandom(t), false);
+            }
+            report("percolates()", m, System.nanoTime() - start);
+            StdOut.println("  Same results? " + (sites == flagSites));
+        } else if (mode.equals("order")) {
+            long sites = 0;
+            long start = System.nanoTime();
+            for (int t = 0; t < m; t++) {
+                sites += uniformTrial(perc, n, new SplittableRandom(t), false);
+            }
+            report("uniform draws", m, System.nanoTime() - start);
+            int[] order = new int[n * n];
+            long permutationSites = 0;
+            start = System.nanoTime();
+            for (int t = 0; t < m; t++) {
+                permutationSites += permutationTrial(perc, n, new SplittableRandom(t), order);
+            }
+            report("permutation", m, System.nanoTime() - start);
+            StdOut.printf("  Mean thresholds: %.4f and %.4f\n", sites / ((double) n * n * m),
+                    permutationSites / ((double) n * n * m));
+        } else if (mode.equals("uf")) {
+            UFPercolation dsa = new UFPercolation(n, true);
+            int[] order = new int[n * n];
+            long sites = 0;
+            long start = System.nanoTime();
+            for (int t = 0; t < m; t++) {
+                sites += permutationTrial(dsa, n, new SplittableRandom(t), order);
+            }
+            report("WeightedQuickUnionUF", m, System.nanoTime() - start);
+            long gridSites = 0;
+            start = System.nanoTime();
+            for (int t = 0; t < m; t++) {
+                gridSites += permutationTrial(perc, n, new SplittableRandom(t), order);
+            }
+            report("GridUF", m, System.nanoTime() - start);
+            StdOut.println("  Same results? " + (sites == gridSites));
+        } else {
+            throw new IllegalArgumentException("Illegal mode");
+        }
+    }
+
+    // Opens uniformly random sites of perc, including ones that are already open, until it
+    // percolates, and returns the number of open sites. If scan is true, percolation is checked
+    // by scanBottomRow() rather than by perc.percolates().
+    private static int uniformTrial(UFPercolation perc, int n, SplittableRandom random,
+                                    boolean scan) {
+        perc.reset();
+        while (scan ? !scanBottomRow(perc, n) : !perc.percolates()) {
+            perc.open(random.nextInt(n), random.nextInt(n));
+        }
+        return perc.numberOfOpenSites();
+    }
+
+    // Opens the sites of perc in the order of a random permutation until it percolates, as
+    // PercolationStats does, and returns the number of open sites. Every step opens a new site.
+    private static int permutationTrial(UFPercolation perc, int n, SplittableRandom random,
+                                        int[] order) {
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        perc.reset();
+        for (int k = 0; !perc.percolates(); k++) {
+            int r = k + random.nextInt(order.length - k);
+            int site = order[r];
+            order[r] = order[k];
+            order[k] = site;
+            perc.open(site / n, site % n);
+        }
+        return perc.numberOfOpenSites();
+    }
+
+    // Returns true if some site in the bottom row of perc is full, asking each site in turn, as
+    // UFPercolation.percolates() did before it kept track of the bottom row.
+    private static boolean scanBottomRow(UFPercolation perc, int n) {
+        for (int j = 0; j < n; j++) {
+            if (perc.isFull(n - 1, j)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Prints how long m experiments took, per experiment and as experiments per second.
+    private static void report(String label, int m, long nanos) {
+        double seconds = nanos / 1e9;
+        StdOut.printf("  %-20s %9.1f ms/experiment %8.2f experiments/second\n", label,
+                1000 * seconds / m, m / seconds);
+    }
+}
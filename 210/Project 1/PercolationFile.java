@@ -0,0 +1,179 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import stdlib.StdOut;
+
+// The size and list of sites to open of a percolation input, loaded in bulk through a
+// memory-mapped file. Two formats are supported: the text format read by the main() drivers
+// (n followed by whitespace-separated i j pairs), and a compact binary format (the int n, the int
+// number of pairs, then the pairs as ints, all big-endian).
+public class PercolationFile {
+    private final int n; // n-by-n percolation system
+    private final int[] rows; // rows[k] = row of the k-th site to open
+    private final int[] cols; // cols[k] = column of the k-th site to open
+
+    // Constructs an input for an n x n system that opens the sites (rows[k], cols[k]).
+    public PercolationFile(int n, int[] rows, int[] cols) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Illegal n");
+        }
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException("rows and cols differ in length");
+        }
+        this.n = n;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    // Returns the size n of the n x n system.
+    public int n() {
+        return n;
+    }
+
+    // Returns the rows of the sites to open.
+    public int[] rows() {
+        return rows;
+    }
+
+    // Returns the columns of the sites to open.
+    public int[] cols() {
+        return cols;
+    }
+
+    // Reads an input in the text format from the named file.
+    public static PercolationFile readText(String filename) {
+        MappedByteBuffer buf = map(filename);
+        int n = nextInt(buf);
+        int[] rows = new int[16];
+        int[] cols = new int[16];
+        int count = 0;
+        while (skipWhitespace(buf)) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, 2 * count);
+                cols = Arrays.copyOf(cols, 2 * count);
+            }
+            rows[count] = nextInt(buf);
+            if (!skipWhitespace(buf)) {
+                throw new IllegalArgumentException("Odd number of coordinates in " + filename);
+            }
+            cols[count] = nextInt(buf);
+            count++;
+        }
+        return new PercolationFile(n, Arrays.copyOf(rows, count), Arrays.copyOf(cols, count));
+    }
+
+    // Reads an input in the binary format from the named file.
+    public static PercolationFile readBinary(String filename) {
+        IntBuffer ints = map(filename).asIntBuffer();
+        if (ints.remaining() < 2) {
+            throw new IllegalArgumentException("Truncated header in " + filename);
+        }
+        int n = ints.get();
+        int count = ints.get();
+        if (count < 0 || ints.remaining() < 2 * (long) count) {
+            throw new IllegalArgumentException("Truncated sites in " + filename);
+        }
+        int[] rows = new int[count];
+        int[] cols = new int[count];
+        for (int k = 0; k < count; k++) {
+            rows[k] = ints.get();
+            cols[k] = ints.get();
+        }
+        return new PercolationFile(n, rows, cols);
+    }
+
+    // Writes this input in the binary format to the named file.
+    public void writeBinary(String filename) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(filename), 1 << 16))) {
+            out.writeInt(n);
+            out.writeInt(rows.length);
+            for (int k = 0; k < rows.length; k++) {
+                out.writeInt(rows[k]);
+                out.writeInt(cols[k]);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write " + filename, e);
+        }
+    }
+
+    // Opens all the sites of this input in perc, in one batch.
+    public void openAll(UFPercolation perc) {
+        perc.openAll(rows, cols);
+    }
+
+    // Opens all the sites of this input in perc, in one batch.
+    public void openAll(ArrayPercolation perc) {
+        perc.openAll(rows, cols);
+    }
+
+    // Maps the named file into memory, read-only.
+    private static MappedByteBuffer map(String filename) {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(filename + " is too large to map");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read " + filename, e);
+        }
+    }
+
+    // Skips whitespace in buf, returning true if there is more input and false otherwise.
+    private static boolean skipWhitespace(MappedByteBuffer buf) {
+        while (buf.hasRemaining()) {
+            byte b = buf.get(buf.position());
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return true;
+            }
+            buf.get();
+        }
+        return false;
+    }
+
+    // Parses the next (optionally negative) decimal int from buf, rejecting one whose magnitude
+    // does not fit in an int.
+    private static int nextInt(MappedByteBuffer buf) {
+        if (!skipWhitespace(buf)) {
+            throw new IllegalArgumentException("Unexpected end of input");
+        }
+        boolean negative = buf.get(buf.position()) == '-';
+        if (negative) {
+            buf.get();
+        }
+        int value = 0;
+        int digits = 0;
+        while (buf.hasRemaining()) {
+            byte b = buf.get(buf.position());
+            if (b < '0' || b > '9') {
+                break;
+            }
+            if (value > (Integer.MAX_VALUE - (b - '0')) / 10) {
+                throw new IllegalArgumentException("Integer overflow at byte " + buf.position());
+            }
+            value = 10 * value + (b - '0');
+            digits++;
+            buf.get();
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Expected an integer at byte " + buf.position());
+        }
+        return negative ? -value : value;
+    }
+
+    // Converts the text input named by args[0] into a binary input named by args[1].
+    public static void main(String[] args) {
+        PercolationFile input = readText(args[0]);
+        input.writeBinary(args[1]);
+        StdOut.printf("%d x %d system, %d sites written to %s\n", input.n, input.n,
+                input.rows.length, args[1]);
+    }
+}
@@ -1,40 +1,69 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import stdlib.StdOut;
 import stdlib.StdRandom;
-import stdlib.StdStats;
 
 public class PercolationStats {
+    // fewest experiments before the confidence interval is trusted to stop an online run
+    private static final int MIN_TRIALS = 30;
+
     // installing variables
-    double [] z;
-    int m;
+    int m; // number of experiments folded into the statistics
+    double mean; // running mean of the percolation thresholds
+    double squares; // running sum of squared deviations from the mean (Welford)
 
-    // Performs m independent experiments on an n x n percolation system.
+    // Performs m independent experiments on an n x n percolation system, using one thread per
+    // available processor.
     public PercolationStats(int n, int m) {
+        this(n, m, StdRandom.uniform(Integer.MAX_VALUE),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    // Performs m independent experiments on an n x n percolation system, spread over the given
+    // number of threads. Experiment t draws its sites from the t-th stream split off a
+    // SplittableRandom seeded with seed, so the results depend on seed but not on threads.
+    public PercolationStats(int n, int m, long seed, int threads) {
         if (n <= 0 || m <= 0) {
             throw new IllegalArgumentException("Illegal n or m");
         }
-        this.m = m;
-        z = new double[m];
-        // Create m independent experiments on an n x n percolation system.
-        for (int i = 0; i < m; i++) {
-            UFPercolation perco = new UFPercolation(n);
-            while (!perco.percolates()) {
-                int a = StdRandom.uniform(0, n);
-                int b = StdRandom.uniform(0, n);
-                perco.open(a, b);
-            }
-            // Store the percolation threshold for each experiment in an array.
-            z[i] = 1.0 * perco.openSites / (n * n);
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Illegal threads");
         }
+        run(n, m, m, 0.0, Long.MAX_VALUE, seed, threads, null);
+    }
+
+    // Performs experiments on an n x n percolation system until the half-width of the 95%
+    // confidence interval drops below epsilon (after at least MIN_TRIALS experiments), millis
+    // milliseconds have passed, or listener (which may be null) asks to stop, whichever comes
+    // first. Experiments are seeded as in the constructor above, and the listener hears about each
+    // one in experiment order.
+    public PercolationStats(int n, double epsilon, long millis, long seed, int threads,
+                            Listener listener) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Illegal n");
+        }
+        if (!(epsilon > 0) || millis <= 0) {
+            throw new IllegalArgumentException("Illegal epsilon or millis");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Illegal threads");
+        }
+        long deadline = System.currentTimeMillis() + millis;
+        run(n, Integer.MAX_VALUE, threads, epsilon, deadline, seed, threads, listener);
     }
 
     // Returns sample mean of percolation threshold.
     public double mean() {
-        return StdStats.mean(z);
+        return mean;
     }
 
     // Returns sample standard deviation of percolation threshold.
     public double stddev() {
-        return StdStats.stddev(z);
+        return Math.sqrt(squares / (m - 1));
     }
 
     // Returns low endpoint of the 95% confidence interval.
@@ -47,6 +76,135 @@ public class PercolationStats {
         return mean() + ((1.96 * stddev()) / Math.sqrt(m));
     }
 
+    // Returns the number of experiments performed.
+    public int trials() {
+        return m;
+    }
+
+    // Receives progress reports from a PercolationStats run.
+    public interface Listener {
+        // Called after each experiment with the number of experiments done so far and the
+        // current 95% confidence interval. Returns false to stop the run.
+        boolean progress(int trials, double low, double high);
+    }
+
+    // Runs up to max experiments in batches of the given size, folding each threshold into the
+    // running statistics in experiment order, and stops early as the online constructor describes.
+    private void run(int n, int max, int batch, double epsilon, long deadline, long seed,
+                     int threads, Listener listener) {
+        SplittableRandom root = new SplittableRandom(seed);
+        threads = Math.min(threads, batch);
+        Worker[] workers = new Worker[threads];
+        for (int w = 0; w < threads; w++) {
+            workers[w] = new Worker(n, w, threads);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            double[] z = new double[Math.min(batch, max)];
+            SplittableRandom[] streams = new SplittableRandom[z.length];
+            while (m < max) {
+                // Split the streams for this batch in experiment order.
+                int size = Math.min(z.length, max - m);
+                for (int t = 0; t < size; t++) {
+                    streams[t] = root.split();
+                }
+                Future<?>[] futures = new Future<?>[threads];
+                for (int w = 0; w < threads; w++) {
+                    workers[w].batch(size, streams, z);
+                    futures[w] = pool.submit(workers[w]);
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                for (int t = 0; t < size; t++) {
+                    add(z[t]);
+                    if (listener != null
+                            && !listener.progress(m, confidenceLow(), confidenceHigh())) {
+                        return;
+                    }
+                    if (m >= MIN_TRIALS && 1.96 * stddev() / Math.sqrt(m) < epsilon) {
+                        return;
+                    }
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Experiment failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Folds the threshold x into the running mean and sum of squared deviations.
+    private void add(double x) {
+        m++;
+        double delta = x - mean;
+        mean += delta / m;
+        squares += delta * (x - mean);
+    }
+
+    // Runs one experiment on an n x n percolation system and returns the fraction of sites opened
+    // when it first percolates. Sites are opened in the order of a random permutation of the site
+    // indices, shuffled a step at a time (Fisher-Yates) using random, so every step opens a site
+    // that is still blocked. perco and sites (of length n * n) are reset and reused across
+    // experiments, so an experiment allocates nothing.
+    private static double trial(int n, SplittableRandom random, UFPercolation perco, int[] sites) {
+        // Start from the identity so the result depends only on random.
+        for (int k = 0; k < sites.length; k++) {
+            sites[k] = k;
+        }
+        perco.reset();
+        for (int k = 0; !perco.percolates(); k++) {
+            int r = k + random.nextInt(sites.length - k);
+            int site = sites[r];
+            sites[r] = sites[k];
+            sites[k] = site;
+            perco.open(site / n, site % n);
+        }
+        return 1.0 * perco.openSites / ((double) n * n);
+    }
+
+    // A task that runs every threads-th experiment of a batch, starting at first, and stores the
+    // thresholds in z. A worker keeps its percolation system and scratch space from one
+    // experiment and batch to the next.
+    private static class Worker implements Runnable {
+        private final int n;
+        private final int first;
+        private final int threads;
+        private final UFPercolation perco;
+        private final int[] sites;
+        private int size;
+        private SplittableRandom[] streams;
+        private double[] z;
+
+        // Constructs a worker for the experiments first, first + threads, ... of each batch.
+        public Worker(int n, int first, int threads) {
+            this.n = n;
+            this.first = first;
+            this.threads = threads;
+            perco = new UFPercolation(n);
+            sites = new int[n * n];
+        }
+
+        // Sets up the worker for a batch of size experiments.
+        public void batch(int size, SplittableRandom[] streams, double[] z) {
+            this.size = size;
+            this.streams = streams;
+            this.z = z;
+        }
+
+        public void run() {
+            for (int t = first; t < size; t += threads) {
+                z[t] = trial(n, streams[t], perco, sites);
+            }
+        }
+    }
+
     // Unit tests the data type. [DO NOT EDIT]
     public static void main(String[] args) {
         int n = Integer.parseInt(args[0]);
@@ -58,4 +216,4 @@ public class PercolationStats {
         StdOut.printf("  Confidence interval = [%.3f, %.3f]\n", stats.confidenceLow(),
                 stats.confidenceHigh());
     }
-}
\ No newline at end of file
+}
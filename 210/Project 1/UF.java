@@ -0,0 +1,18 @@
+// The union-find operations that UFPercolation needs, so that it can run on either
+// dsa.WeightedQuickUnionUF or the percolation-specific GridUF.
+public interface UF {
+    // Returns the canonical site of the component containing site p.
+    int find(int p);
+
+    // Merges the components containing sites p and q.
+    void union(int p, int q);
+
+    // Returns true if sites p and q are in the same component, and false otherwise.
+    boolean connected(int p, int q);
+
+    // Returns the number of sites in the component containing site p.
+    int size(int p);
+
+    // Puts every site back in its own component.
+    void reset();
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 import dsa.WeightedQuickUnionUF;
 import stdlib.In;
 import stdlib.StdOut;
@@ -5,22 +7,39 @@ import stdlib.StdOut;
 public class UFPercolation implements Percolation {
     int n;  // Percolation System Size
     int openSites;  // Number of Open Sites
-    boolean[][] open;  // Percolation System
-    WeightedQuickUnionUF uf;  // Union-find representation of Percolation System
+    boolean percolated;  // Does some cluster reach both the top and the bottom row?
+    BitGrid open;  // Percolation System, one bit per site
+    BitGrid top;  // top.get(r) = does the cluster rooted at site r reach the top row?
+    BitGrid bottom;  // bottom.get(r) = does the cluster rooted at site r reach the bottom row?
+    UF uf;  // Union-find over the sites, without virtual sites
 
+    // Constructs an n x n percolation system, with all sites blocked, backed by GridUF.
     public UFPercolation(int n) {
+        this(n, false);
+    }
+
+    // Constructs an n x n percolation system, with all sites blocked, backed by
+    // dsa.WeightedQuickUnionUF if useDsa is true and by GridUF otherwise.
+    public UFPercolation(int n, boolean useDsa) {
         if (n <= 0) {
             throw new IllegalArgumentException("Illegal n");
         }
         this.n = n;
-        open = new boolean[n][n];
+        open = new BitGrid(n);
         openSites = 0;
-        uf = new WeightedQuickUnionUF(n * n + 1);
+        uf = useDsa ? new DsaUF(n * n) : new GridUF(n * n);
+        top = new BitGrid(n);
+        bottom = new BitGrid(n);
+    }
 
-        // Only connect top row to virtual top site
-        for (int j = 0; j < n; j++) {
-            uf.union(encode(0, j), 0);
-        }
+    // Blocks every site again, clearing the existing storage rather than reallocating it.
+    public void reset() {
+        open.clear();
+        openSites = 0;
+        percolated = false;
+        uf.reset();
+        top.clear();
+        bottom.clear();
     }
 
     // Opens site (i, j) if it is not already open.
@@ -28,32 +47,72 @@ public class UFPercolation implements Percolation {
         if (i < 0 || i >= n || j < 0 || j >= n) {
             throw new IndexOutOfBoundsException("Illegal i or j");
         }
-        // Only connect bottom row to virtual bottom site
-        if (!open[i][j]) {
-            open[i][j] = true;
+        if (!open.get(i, j)) {
+            open.set(i, j);
             openSites++;
-            // Connect to virtual top site
+            int site = encode(i, j);
+            addSite(site, i);
             if (i < n - 1 && isOpen(i + 1, j)) {
-                uf.union(encode(i + 1, j), encode(i, j));
+                connect(encode(i + 1, j), site);
             }
             if (i > 0 && isOpen(i - 1, j)) {
-                uf.union(encode(i - 1, j), encode(i, j));
+                connect(encode(i - 1, j), site);
             }
             if (j < n - 1 && isOpen(i, j + 1)) {
-                uf.union(encode(i, j + 1), encode(i, j));
+                connect(encode(i, j + 1), site);
             }
             if (j > 0 && isOpen(i, j - 1)) {
-                uf.union(encode(i, j - 1), encode(i, j));
+                connect(encode(i, j - 1), site);
+            }
+        }
+    }
+    // Opens the sites (rows[k], cols[k]) that are not already open. All the sites are marked open
+    // first, and the unions for the newly opened ones are done afterwards in one pass.
+    public void openAll(int[] rows, int[] cols) {
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException("rows and cols differ in length");
+        }
+        for (int k = 0; k < rows.length; k++) {
+            if (rows[k] < 0 || rows[k] >= n || cols[k] < 0 || cols[k] >= n) {
+                throw new IndexOutOfBoundsException("Illegal i or j");
+            }
+        }
+        int[] opened = new int[rows.length];
+        int count = 0;
+        for (int k = 0; k < rows.length; k++) {
+            if (!open.get(rows[k], cols[k])) {
+                open.set(rows[k], cols[k]);
+                addSite(encode(rows[k], cols[k]), rows[k]);
+                opened[count++] = k;
+            }
+        }
+        openSites += count;
+        for (int c = 0; c < count; c++) {
+            int i = rows[opened[c]];
+            int j = cols[opened[c]];
+            int site = encode(i, j);
+            if (i < n - 1 && open.get(i + 1, j)) {
+                connect(encode(i + 1, j), site);
+            }
+            if (i > 0 && open.get(i - 1, j)) {
+                connect(encode(i - 1, j), site);
+            }
+            if (j < n - 1 && open.get(i, j + 1)) {
+                connect(encode(i, j + 1), site);
+            }
+            if (j > 0 && open.get(i, j - 1)) {
+                connect(encode(i, j - 1), site);
             }
         }
     }
+
     // Returns true if site (i, j) is open, and false otherwise.
 
     public boolean isOpen(int i, int j) {
         if (i < 0 || i >= n || j < 0 || j >= n) {
             throw new IndexOutOfBoundsException("Illegal i or j");
         }
-        return open[i][j];
+        return open.get(i, j);
     }
 
     // Returns true if site (i, j) is full, and false otherwise.
@@ -61,7 +120,9 @@ public class UFPercolation implements Percolation {
         if (i < 0 || i >= n || j < 0 || j >= n) {
             throw new IndexOutOfBoundsException("Illegal i or j");
         }
-        return isOpen(i, j) && uf.connected(0, encode(i, j));
+        // Ask whether the site's cluster reaches the top row, rather than using a virtual top site,
+        // so that fullness does not see backwash through the bottom row.
+        return isOpen(i, j) && top.get(uf.find(encode(i, j)));
     }
     // Returns the number of open sites.
     public int numberOfOpenSites() {
@@ -69,17 +130,101 @@ public class UFPercolation implements Percolation {
     }
     // Returns true if this system percolates, and false otherwise.
     public boolean percolates() {
-        for (int j = 0; j < n; j++) {
-            if (isFull(n - 1, j)) {
-                return true;
-            }
+        return percolated;
+    }
+
+    // Called once for each newly opened site, before it is connected to its neighbours.
+    // ClusterPercolation overrides it to keep its statistics; here it does nothing.
+    void opened(int site) {
+    }
+
+    // Called just before the distinct clusters rooted at rootP and rootQ are merged.
+    // ClusterPercolation overrides it to keep its statistics; here it does nothing.
+    void merging(int rootP, int rootQ) {
+    }
+
+    // Records the newly opened site as a cluster of its own, marking it as reaching the top if it
+    // is in row i = 0 and the bottom if it is in row i = n - 1.
+    private void addSite(int site, int i) {
+        if (i == 0) {
+            top.set(site);
+        }
+        if (i == n - 1) {
+            bottom.set(site);
+            percolated |= i == 0;
+        }
+        opened(site);
+    }
+
+    // Unions the open sites p and q, carrying over the top and bottom bits.
+    private void connect(int p, int q) {
+        int rootP = uf.find(p);
+        int rootQ = uf.find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        merging(rootP, rootQ);
+        boolean reachesTop = top.get(rootP) || top.get(rootQ);
+        boolean reachesBottom = bottom.get(rootP) || bottom.get(rootQ);
+        uf.union(rootP, rootQ);
+        int root = uf.find(rootP);
+        if (reachesTop) {
+            top.set(root);
         }
-        return false;
+        if (reachesBottom) {
+            bottom.set(root);
+        }
+        percolated |= reachesTop && reachesBottom;
     }
+
     // Returns the integer corresponding to the site (i, j).
-    private int encode(int i, int j) {
-        return n * i + j + 1;
+    int encode(int i, int j) {
+        return n * i + j;
+    }
+
+    // Adapts dsa.WeightedQuickUnionUF to the UF interface. WeightedQuickUnionUF does not expose
+    // component sizes, so the adapter keeps its own, indexed by root.
+    private static class DsaUF implements UF {
+        private final int n;
+        private WeightedQuickUnionUF uf;
+        private final int[] size;
+
+        // Constructs a union-find over sites 0 through n - 1.
+        public DsaUF(int n) {
+            this.n = n;
+            uf = new WeightedQuickUnionUF(n);
+            size = new int[n];
+            Arrays.fill(size, 1);
+        }
+
+        public int find(int p) {
+            return uf.find(p);
+        }
+
+        public void union(int p, int q) {
+            int rootP = uf.find(p);
+            int rootQ = uf.find(q);
+            if (rootP != rootQ) {
+                uf.union(rootP, rootQ);
+                size[uf.find(rootP)] = size[rootP] + size[rootQ];
+            }
+        }
+
+        public int size(int p) {
+            return size[uf.find(p)];
+        }
+
+        public boolean connected(int p, int q) {
+            return uf.connected(p, q);
+        }
+
+        // WeightedQuickUnionUF cannot be cleared in place, so this allocates a new one.
+        public void reset() {
+            uf = new WeightedQuickUnionUF(n);
+            Arrays.fill(size, 1);
+        }
     }
+
     // Unit tests the data type. [DO NOT EDIT]
     public static void main(String[] args) {
         String filename = args[0];
@@ -0,0 +1,194 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import stdlib.StdIn;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// Reads whitespace-separated tokens from an input stream, a large block at a time, with a
+// hand-written tokenizer. It stands in for StdIn in drivers whose input is large: there is no
+// regex scanning and no per-token synchronization, and ints are parsed straight from the bytes.
+// Input is decoded as UTF-8, and tokens are separated by the characters Character.isWhitespace()
+// accepts, as with StdIn's \p{javaWhitespace} delimiter. The only such characters outside ASCII
+// take three bytes in UTF-8, so only their lead bytes are ever decoded.
+public class FastIn {
+    private final InputStream in;  // The underlying stream.
+    private final byte[] buf = new byte[1 << 16];  // The current block of input.
+    private int pos;  // Index of the next unread byte in buf.
+    private int len;  // Number of valid bytes in buf, or -1 at end of input.
+    private byte[] token = new byte[64];  // Scratch space for the bytes of a token.
+
+    // Constructs a reader for standard input.
+    public FastIn() {
+        this(System.in);
+    }
+
+    // Constructs a reader for the given stream.
+    public FastIn(InputStream in) {
+        this.in = in;
+    }
+
+    // Returns true if only whitespace remains, and false otherwise.
+    public boolean isEmpty() {
+        return !skipWhitespace();
+    }
+
+    // Reads and returns the next token as a string.
+    public String readString() {
+        if (!skipWhitespace()) throw new NoSuchElementException("No more tokens");
+        int n = 0;
+        while (len > 0 || fill()) {
+            if (whitespace() > 0) break;
+            if (n == token.length) token = Arrays.copyOf(token, 2 * n);
+            token[n++] = buf[pos];
+            advance(1);
+        }
+        return new String(token, 0, n, StandardCharsets.UTF_8);
+    }
+
+    // Reads and returns the next token as an int.
+    public int readInt() {
+        long value = readLong();
+        if (value != (int) value) throw new NumberFormatException("int overflow: " + value);
+        return (int) value;
+    }
+
+    // Reads and returns the next token as a long.
+    public long readLong() {
+        if (!skipWhitespace()) throw new NoSuchElementException("No more tokens");
+        boolean negative = buf[pos] == '-';
+        if (negative || buf[pos] == '+') advance(1);
+        long value = 0;
+        int digits = 0;
+        while (len > 0 || fill()) {
+            if (whitespace() > 0) break;
+            byte b = buf[pos];
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Not a long: unexpected '" + (char) b + "'");
+            }
+            if (value > (Long.MAX_VALUE - (b - '0')) / 10) {
+                throw new NumberFormatException("long overflow");
+            }
+            value = 10 * value + (b - '0');
+            digits++;
+            advance(1);
+        }
+        if (digits == 0) throw new NumberFormatException("Not a long: no digits");
+        return negative ? -value : value;
+    }
+
+    // Skips whitespace, returning true if a token follows and false at end of input.
+    private boolean skipWhitespace() {
+        while (len > 0 || fill()) {
+            int k = whitespace();
+            if (k == 0) return true;
+            advance(k);
+        }
+        return false;
+    }
+
+    // Returns the length in bytes of the whitespace character at pos, or 0 if the character there
+    // is not whitespace.
+    private int whitespace() {
+        byte b = buf[pos];
+        if (b >= 0) return isWhitespace(b) ? 1 : 0;
+        if (b != (byte) 0xE1 && b != (byte) 0xE2 && b != (byte) 0xE3) return 0;
+        if (lookahead(3) < 3) return 0;
+        byte b1 = buf[pos + 1];
+        byte b2 = buf[pos + 2];
+        if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80) return 0;
+        int c = (b & 0x0F) << 12 | (b1 & 0x3F) << 6 | (b2 & 0x3F);
+        return Character.isWhitespace(c) ? 3 : 0;
+    }
+
+    // Consumes the k bytes at pos.
+    private void advance(int k) {
+        pos += k;
+        if (pos == len) len = 0;
+    }
+
+    // Makes up to k bytes from pos on available in buf, moving the unread bytes to the front and
+    // reading more if the block ends sooner, and returns how many are.
+    private int lookahead(int k) {
+        if (len - pos < k) {
+            len -= pos;
+            System.arraycopy(buf, pos, buf, 0, len);
+            pos = 0;
+            try {
+                while (len < k) {
+                    int n = in.read(buf, len, buf.length - len);
+                    if (n < 0) break;
+                    len += n;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return Math.min(k, len - pos);
+    }
+
+    // Reads the next block into buf, returning false at end of input.
+    private boolean fill() {
+        if (len < 0) return false;
+        try {
+            int n;
+            do {
+                n = in.read(buf, 0, buf.length);
+            } while (n == 0);
+            len = n;
+            pos = 0;
+            return n > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Returns true if the ASCII byte b is whitespace: \t, \n, \u000B, \f, \r, the separators
+    // \u001C to \u001F, or a space.
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+
+    // Accepts n (default 10000000) as a command-line argument, writes n random ints to memory, one
+    // per line, and reports how fast FastIn and then StdIn read them back. StdIn is pointed at the
+    // same bytes by replacing System.in before StdIn is first used.
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FastOut out = new FastOut(bytes);
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            int x = StdRandom.uniform(-1000000000, 1000000000);
+            out.println(x);
+            sum += x;
+        }
+        out.flush();
+        byte[] input = bytes.toByteArray();
+
+        long start = System.nanoTime();
+        FastIn in = new FastIn(new ByteArrayInputStream(input));
+        long fastSum = 0;
+        for (int i = 0; i < n; i++) {
+            fastSum += in.readInt();
+        }
+        double fastSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.setIn(new ByteArrayInputStream(input));
+        start = System.nanoTime();
+        long stdSum = 0;
+        for (int i = 0; i < n; i++) {
+            stdSum += StdIn.readInt();
+        }
+        double stdSeconds = (System.nanoTime() - start) / 1e9;
+
+        StdOut.printf("%d ints (%d bytes):\n", n, input.length);
+        StdOut.printf("  FastIn: %.2f s (%.0f ints/second)\n", fastSeconds, n / fastSeconds);
+        StdOut.printf("  StdIn:  %.2f s (%.0f ints/second)\n", stdSeconds, n / stdSeconds);
+        StdOut.println("  Sums match? " + (fastSum == sum && stdSum == sum));
+    }
+}
@@ -0,0 +1,48 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes lines to an output stream through a large buffer, encoded as UTF-8. It stands in for
+// StdOut in drivers whose output is large: nothing is flushed until the buffer fills or flush()
+// is called, so callers must call flush() when done.
+public class FastOut {
+    private final Writer out;  // The buffered, encoding writer.
+
+    // Constructs a writer for standard output.
+    public FastOut() {
+        this(System.out);
+    }
+
+    // Constructs a writer for the given stream.
+    public FastOut(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    // Writes s followed by a newline.
+    public void println(String s) {
+        try {
+            out.write(s);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes x followed by a newline.
+    public void println(long x) {
+        println(Long.toString(x));
+    }
+
+    // Writes any buffered output to the stream.
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// A deque of ints, implemented using a resizing circular int[] as the underlying data structure.
+// It behaves like LinkedDeque<Integer> without boxing each item or allocating a node for it. The
+// array length is always a power of two; it doubles when full and halves when a quarter full.
+// A for-each loop over the deque still boxes each item it reads; forEachInt() and the iterator's
+// nextInt() do not.
+public class IntDeque implements Iterable<Integer> {
+    private int[] q = new int[2];  // The circular array of items.
+    private int head;  // Index of the first item in q.
+    private int n;  // Size of the deque.
+
+    // Constructor: Initializes an empty deque.
+    public IntDeque() {
+        n = 0;
+    }
+
+    // Checks if the deque is empty.
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // Returns the number of items in the deque.
+    public int size() {
+        return n;
+    }
+
+    // Adds an item to the front of the deque.
+    public void addFirst(int item) {
+        if (n == q.length) resize(2 * q.length);
+        head = (head - 1) & (q.length - 1);
+        q[head] = item;
+        n++;
+    }
+
+    // Adds an item to the back of the deque.
+    public void addLast(int item) {
+        if (n == q.length) resize(2 * q.length);
+        q[(head + n) & (q.length - 1)] = item;
+        n++;
+    }
+
+    // Retrieves the item at the front without removal.
+    public int peekFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        return q[head];
+    }
+
+    // Removes and returns the item at the front of the deque.
+    public int removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        int item = q[head];
+        head = (head + 1) & (q.length - 1);
+        n--;
+        if (n > 0 && n == q.length / 4) resize(q.length / 2);
+        return item;
+    }
+
+    // Retrieves the item at the back without removal.
+    public int peekLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        return q[(head + n - 1) & (q.length - 1)];
+    }
+
+    // Removes and returns the item at the back of the deque.
+    public int removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        int item = q[(head + n - 1) & (q.length - 1)];
+        n--;
+        if (n > 0 && n == q.length / 4) resize(q.length / 2);
+        return item;
+    }
+
+    // Provides an iterator to access items from front to back.
+    public PrimitiveIterator.OfInt iterator() {
+        return new DequeIterator();
+    }
+
+    // Performs action on each item, from front to back, without boxing it.
+    public void forEachInt(IntConsumer action) {
+        for (int i = 0; i < n; i++) {
+            action.accept(q[(head + i) & (q.length - 1)]);
+        }
+    }
+
+    // Returns a string representation of the deque.
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        PrimitiveIterator.OfInt it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.nextInt());
+            sb.append(", ");
+        }
+        return n > 0 ? "[" + sb.substring(0, sb.length() - 2) + "]" : "[]";
+    }
+
+    // Moves the items to a new array of the given capacity, starting at index 0.
+    private void resize(int capacity) {
+        int[] temp = new int[capacity];
+        for (int i = 0; i < n; i++) {
+            temp[i] = q[(head + i) & (q.length - 1)];
+        }
+        q = temp;
+        head = 0;
+    }
+
+    // Inner class: iterator for the deque.
+    private class DequeIterator implements PrimitiveIterator.OfInt {
+        int i = 0;  // Offset of the next item from the front.
+
+        // Returns true if there are more items to iterate, and false otherwise.
+        public boolean hasNext() {
+            return i < n;
+        }
+
+        // Retrieves the next item in the iterator.
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException("Iterator is empty");
+            return q[(head + i++) & (q.length - 1)];
+        }
+    }
+
+    // Unit tests the data type. Applies m random operations (default 1000000) to this deque and to
+    // a LinkedDeque, checking that every item peeked at or removed from either end matches, and
+    // then that both iterate over the same items. The odds of adding rather than removing change
+    // every 1000 operations, so the array grows, shrinks and wraps around many times.
+    public static void main(String[] args) {
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        IntDeque deque = new IntDeque();
+        LinkedDeque<Integer> expected = new LinkedDeque<Integer>();
+        boolean matched = true;
+        double p = 0.5;  // Probability that an operation adds an item.
+        for (int i = 0; i < m; i++) {
+            if (i % 1000 == 0) {
+                p = StdRandom.uniform();
+            }
+            if (expected.isEmpty() || StdRandom.bernoulli(p)) {
+                if (StdRandom.bernoulli(0.5)) {
+                    deque.addFirst(i);
+                    expected.addFirst(i);
+                } else {
+                    deque.addLast(i);
+                    expected.addLast(i);
+                }
+            } else if (StdRandom.bernoulli(0.5)) {
+                matched &= deque.peekFirst() == expected.peekFirst();
+                matched &= deque.removeFirst() == expected.removeFirst();
+            } else {
+                matched &= deque.peekLast() == expected.peekLast();
+                matched &= deque.removeLast() == expected.removeLast();
+            }
+            matched &= deque.size() == expected.size();
+        }
+        Iterator<Integer> it = expected.iterator();
+        PrimitiveIterator.OfInt items = deque.iterator();
+        while (items.hasNext()) {
+            matched &= it.hasNext() && items.nextInt() == it.next();
+        }
+        matched &= !it.hasNext();
+        StdOut.println("Items left: " + deque.size());
+        StdOut.println("All " + m + " operations matched LinkedDeque? " + matched);
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// A random queue of ints, implemented using a resizing int[] as the underlying data structure. It
+// behaves like ResizingArrayRandomQueue<Integer> without boxing each item. A for-each loop over
+// the queue still boxes each item it reads; forEachInt() and the iterator's nextInt() do not, as
+// the iterator's lazy shuffle (a RandomPermutation) is kept in int arrays.
+public class IntRandomQueue implements Iterable<Integer> {
+    private int[] q;
+    // size of queue
+    private int n;
+    // number of changes to the queue, so that its iterators can detect them
+    private int modCount;
+
+    // Constructs an empty random queue.
+    public IntRandomQueue() {
+        this(2);
+    }
+
+    // Constructs an empty random queue with room for capacity items before it has to grow.
+    public IntRandomQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity");
+        }
+        q = new int[capacity];
+        n = 0;
+    }
+
+    // Returns true if this queue is empty, and false otherwise.
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // Returns the number of items in this queue.
+    public int size() {
+        return n;
+    }
+
+    // Adds item to the end of this queue.
+    public void enqueue(int item) {
+        if (q.length == n) {
+            resize(2 * q.length);
+        }
+        q[n] = item;
+        n++;
+        modCount++;
+    }
+
+    // Returns a random item from this queue.
+    public int sample() {
+        if (isEmpty()) throw new NoSuchElementException("Random queue is empty");
+        return q[StdRandom.uniform(n)];
+    }
+
+    // Removes and returns a random item from this queue.
+    public int dequeue() {
+        if (isEmpty()) throw new NoSuchElementException("Random queue is empty");
+        int r = StdRandom.uniform(n);
+        int item = q[r];
+        q[r] = q[n - 1];  // Move the last item into the vacated slot.
+        n--;
+        modCount++;
+        if (n > 0 && n == q.length / 4) {
+            resize(q.length / 2);
+        }
+        return item;
+    }
+
+    // Returns k items chosen independently and uniformly at random (with replacement).
+    public int[] sample(int k) {
+        if (k < 0) throw new IllegalArgumentException("Illegal k");
+        if (k > 0 && isEmpty()) throw new NoSuchElementException("Random queue is empty");
+        int[] items = new int[k];
+        for (int i = 0; i < k; i++) {
+            items[i] = q[StdRandom.uniform(n)];
+        }
+        return items;
+    }
+
+    // Removes and returns k random items (without replacement). The items are drawn by a partial
+    // Fisher-Yates shuffle that swaps each chosen item with the last one still in the queue, and
+    // the array is shrunk at most once, at the end.
+    public int[] dequeue(int k) {
+        if (k < 0) throw new IllegalArgumentException("Illegal k");
+        if (k > n) throw new NoSuchElementException("Random queue has fewer than k items");
+        int[] items = new int[k];
+        for (int i = 0; i < k; i++) {
+            int last = n - 1 - i;
+            int r = StdRandom.uniform(last + 1);
+            items[i] = q[r];
+            q[r] = q[last];
+        }
+        n -= k;
+        modCount++;
+        // Halve while at most a quarter full, down to the capacity of 2 that draining the queue
+        // with dequeue() leaves behind.
+        int capacity = q.length;
+        while (capacity > 2 && n <= capacity / 4) {
+            capacity /= 2;
+        }
+        if (capacity != q.length) {
+            resize(capacity);
+        }
+        return items;
+    }
+
+    // Returns an independent iterator to iterate over the items in this queue in random order. The
+    // iterator reads the queue in place, and throws a ConcurrentModificationException if the queue
+    // is changed while it is in use.
+    public PrimitiveIterator.OfInt iterator() {
+        return new RandomQueueIterator();
+    }
+
+    // Performs action on each item, in random order, without boxing it.
+    public void forEachInt(IntConsumer action) {
+        PrimitiveIterator.OfInt it = iterator();
+        while (it.hasNext()) {
+            action.accept(it.nextInt());
+        }
+    }
+
+    // Returns a string representation of this queue.
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        PrimitiveIterator.OfInt it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.nextInt());
+            sb.append(", ");
+        }
+        return n > 0 ? "[" + sb.substring(0, sb.length() - 2) + "]" : "[]";
+    }
+
+    // An iterator, doesn't implement remove() since it's optional. It draws the indices of the
+    // items from a RandomPermutation, which shuffles them lazily, one step per nextInt(): drawing
+    // the first k items costs O(k) time and memory, and a full pass O(n) time and about 6n bytes.
+    private class RandomQueueIterator implements PrimitiveIterator.OfInt {
+        private final int expected = modCount; // modCount the iterator was created at
+        private final RandomPermutation order = new RandomPermutation(n); // indices yet to draw
+
+        // Returns true if there are more items to iterate, and false otherwise.
+        public boolean hasNext() {
+            return order.hasNext();
+        }
+
+        // Returns the next item.
+        public int nextInt() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException("Random queue was modified");
+            }
+            if (!hasNext()) throw new NoSuchElementException("Iterator is empty");
+            return q[order.next()];
+        }
+    }
+
+    // Resizes the underlying array.
+    private void resize(int max) {
+        int[] temp = new int[max];
+        System.arraycopy(q, 0, temp, 0, n);
+        q = temp;
+    }
+
+    // Unit tests the data type.
+    public static void main(String[] args) {
+        IntRandomQueue q = new IntRandomQueue();
+        int sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            int r = StdRandom.uniform(10000);
+            q.enqueue(r);
+            sum += r;
+        }
+        int iterSumQ = 0;
+        PrimitiveIterator.OfInt it = q.iterator();
+        while (it.hasNext()) {
+            iterSumQ += it.nextInt();
+        }
+        int dequeSumQ = 0;
+        for (int x : q.dequeue(q.size() / 2)) {
+            dequeSumQ += x;
+        }
+        while (q.size() > 0) {
+            dequeSumQ += q.dequeue();
+        }
+        StdOut.println("sum       = " + sum);
+        StdOut.println("iterSumQ  = " + iterSumQ);
+        StdOut.println("dequeSumQ = " + dequeSumQ);
+        StdOut.println("iterSumQ + dequeSumQ == 2 * sum? " + (iterSumQ + dequeSumQ == 2 * sum));
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// Draws the integers 0 through n - 1 in uniformly random order, one per next(), by a Fisher-Yates
+// shuffle of the identity permutation that is carried out one step at a time. Only the positions
+// whose value has been swapped away from the identity are stored, in an open-addressing int-to-int
+// hash table, so construction is O(1) and drawing the first k values takes O(k) time and memory.
+// Once the table holds more than n / 16 entries, where it would soon cost more than a plain array,
+// the rest of the permutation is moved to a dense int[]. A full pass therefore takes O(n) time and
+// at most about 6n bytes, of which the dense array is 4n.
+public class RandomPermutation {
+    private static final int EMPTY = -1;  // Marks a free slot in keys.
+    private final int n;  // Number of values to draw.
+    private int current;  // Position of the next value to draw.
+    private int[] keys = new int[16];  // Swapped positions, in an open-addressing table.
+    private int[] values = new int[16];  // values[i] = value at position keys[i].
+    private int count;  // Number of entries in the table.
+    private int[] dense;  // Once non-null, dense[p - base] = value at position p >= current.
+    private int base;  // Position of dense[0].
+
+    // Constructs a random order of the integers 0 through n - 1.
+    public RandomPermutation(int n) {
+        if (n < 0) throw new IllegalArgumentException("Illegal n");
+        this.n = n;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // Returns true if there are more values to draw, and false otherwise.
+    public boolean hasNext() {
+        return current < n;
+    }
+
+    // Returns the next value.
+    public int next() {
+        if (!hasNext()) throw new NoSuchElementException("Permutation is empty");
+        if (dense == null && count > n / 16) {
+            toDense();
+        }
+        int r = current + StdRandom.uniform(n - current);
+        int chosen;
+        if (dense != null) {
+            chosen = dense[r - base];
+            dense[r - base] = dense[current - base];
+        } else {
+            chosen = get(r);
+            // Move the value at position current to position r; current is not read again.
+            int moved = remove(current);
+            if (r != current) {
+                put(r, moved);
+            }
+        }
+        current++;
+        return chosen;
+    }
+
+    // Moves the positions from current on into a dense array, and drops the table.
+    private void toDense() {
+        base = current;
+        dense = new int[n - base];
+        for (int p = base; p < n; p++) {
+            dense[p - base] = p;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                dense[keys[i] - base] = values[i];
+            }
+        }
+        keys = null;
+        values = null;
+    }
+
+    // Returns the value at position p.
+    private int get(int p) {
+        int mask = keys.length - 1;
+        for (int i = hash(p) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == p) return values[i];
+        }
+        return p;
+    }
+
+    // Records that position p holds value v.
+    private void put(int p, int v) {
+        int mask = keys.length - 1;
+        int i = hash(p) & mask;
+        while (keys[i] != EMPTY && keys[i] != p) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            keys[i] = p;
+            count++;
+        }
+        values[i] = v;
+        if (2 * count > keys.length) {
+            resize(2 * keys.length);
+        }
+    }
+
+    // Forgets position p and returns the value it held. Later entries of the probe run are shifted
+    // back into the freed slot, so that no tombstones are needed.
+    private int remove(int p) {
+        int mask = keys.length - 1;
+        int i = hash(p) & mask;
+        while (keys[i] != p) {
+            if (keys[i] == EMPTY) return p;
+            i = (i + 1) & mask;
+        }
+        int v = values[i];
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int h = hash(keys[j]) & mask;
+            // Leave keys[j] alone if its home slot h lies cyclically in (i, j].
+            if (i <= j ? i < h && h <= j : i < h || h <= j) {
+                continue;
+            }
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+        }
+        keys[i] = EMPTY;
+        count--;
+        return v;
+    }
+
+    // Rehashes the table into one of the given capacity.
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        count = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // Returns a well-mixed hash of p.
+    private static int hash(int p) {
+        int h = p * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Unit tests the data type. Checks that n draws give each of 0 through n - 1 exactly once and
+    // reports how long a full pass took, then checks that the first value drawn from a permutation
+    // of 5 is close to uniform.
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        boolean[] seen = new boolean[n];
+        boolean once = true;
+        long start = System.nanoTime();
+        RandomPermutation perm = new RandomPermutation(n);
+        while (perm.hasNext()) {
+            int x = perm.next();
+            once &= !seen[x];
+            seen[x] = true;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StdOut.printf("Each of %d values drawn exactly once? %b (%.2f s)\n", n, once, seconds);
+        int trials = 100000;
+        int[] counts = new int[5];
+        for (int t = 0; t < trials; t++) {
+            counts[new RandomPermutation(5).next()]++;
+        }
+        StdOut.println("First of 5 drawn (expect about " + trials / 5 + " each): "
+                + Arrays.toString(counts));
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// A deque implemented using a resizing circular array, with the same API as LinkedDeque. The
+// array length is always a power of two, so wrapping an index around is a bit mask. The array
+// doubles when full and halves when a quarter full.
+public class ResizingArrayDeque<Item> implements Iterable<Item> {
+    private Item[] q = (Item[]) new Object[2];  // The circular array of items.
+    private int head;  // Index of the first item in q.
+    private int n;  // Size of the deque.
+
+    // Constructor: Initializes an empty deque.
+    public ResizingArrayDeque() {
+        n = 0;
+    }
+
+    // Checks if the deque is empty.
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // Returns the number of items in the deque.
+    public int size() {
+        return n;
+    }
+
+    // Adds an item to the front of the deque.
+    public void addFirst(Item item) {
+        if (item == null) throw new NullPointerException("item is null");
+        if (n == q.length) resize(2 * q.length);
+        head = (head - 1) & (q.length - 1);
+        q[head] = item;
+        n++;
+    }
+
+    // Adds an item to the back of the deque.
+    public void addLast(Item item) {
+        if (item == null) throw new NullPointerException("item is null");
+        if (n == q.length) resize(2 * q.length);
+        q[(head + n) & (q.length - 1)] = item;
+        n++;
+    }
+
+    // Retrieves the item at the front without removal.
+    public Item peekFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        return q[head];
+    }
+
+    // Removes and returns the item at the front of the deque.
+    public Item removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        Item item = q[head];
+        q[head] = null;  // Avoid loitering.
+        head = (head + 1) & (q.length - 1);
+        n--;
+        if (n > 0 && n == q.length / 4) resize(q.length / 2);
+        return item;
+    }
+
+    // Retrieves the item at the back without removal.
+    public Item peekLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        return q[(head + n - 1) & (q.length - 1)];
+    }
+
+    // Removes and returns the item at the back of the deque.
+    public Item removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        int last = (head + n - 1) & (q.length - 1);
+        Item item = q[last];
+        q[last] = null;  // Avoid loitering.
+        n--;
+        if (n > 0 && n == q.length / 4) resize(q.length / 2);
+        return item;
+    }
+
+    // Provides an iterator to access items from front to back.
+    public Iterator<Item> iterator() {
+        return new DequeIterator();
+    }
+
+    // Returns a string representation of the deque.
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Item item : this) {
+            sb.append(item);
+            sb.append(", ");
+        }
+        return n > 0 ? "[" + sb.substring(0, sb.length() - 2) + "]" : "[]";
+    }
+
+    // Moves the items to a new array of the given capacity, starting at index 0.
+    private void resize(int capacity) {
+        Item[] temp = (Item[]) new Object[capacity];
+        for (int i = 0; i < n; i++) {
+            temp[i] = q[(head + i) & (q.length - 1)];
+        }
+        q = temp;
+        head = 0;
+    }
+
+    // Inner class: iterator for the deque.
+    private class DequeIterator implements Iterator<Item> {
+        int i = 0;  // Offset of the next item from the front.
+
+        // Returns true if there are more items to iterate, and false otherwise.
+        public boolean hasNext() {
+            return i < n;
+        }
+
+        // Retrieves the next item in the iterator.
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException("Iterator is empty");
+            return q[(head + i++) & (q.length - 1)];
+        }
+    }
+
+    // Unit tests the data type. Applies m random operations (default 1000000) to this deque and to
+    // a LinkedDeque, checking that every item peeked at or removed from either end matches, and
+    // then that both iterate over the same items. The odds of adding rather than removing change
+    // every 1000 operations, so the array grows, shrinks and wraps around many times.
+    public static void main(String[] args) {
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        ResizingArrayDeque<Integer> deque = new ResizingArrayDeque<Integer>();
+        LinkedDeque<Integer> expected = new LinkedDeque<Integer>();
+        boolean matched = true;
+        double p = 0.5;  // Probability that an operation adds an item.
+        for (int i = 0; i < m; i++) {
+            if (i % 1000 == 0) {
+                p = StdRandom.uniform();
+            }
+            if (expected.isEmpty() || StdRandom.bernoulli(p)) {
+                if (StdRandom.bernoulli(0.5)) {
+                    deque.addFirst(i);
+                    expected.addFirst(i);
+                } else {
+                    deque.addLast(i);
+                    expected.addLast(i);
+                }
+            } else if (StdRandom.bernoulli(0.5)) {
+                matched &= expected.peekFirst().equals(deque.peekFirst());
+                matched &= expected.removeFirst().equals(deque.removeFirst());
+            } else {
+                matched &= expected.peekLast().equals(deque.peekLast());
+                matched &= expected.removeLast().equals(deque.removeLast());
+            }
+            matched &= deque.size() == expected.size();
+        }
+        Iterator<Integer> it = expected.iterator();
+        for (Integer x : deque) {
+            matched &= it.hasNext() && it.next().equals(x);
+        }
+        matched &= !it.hasNext();
+        StdOut.println("Items left: " + deque.size());
+        StdOut.println("All " + m + " operations matched LinkedDeque? " + matched);
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import stdlib.StdOut;
@@ -9,6 +11,8 @@ public class ResizingArrayRandomQueue<Item> implements Iterable<Item> {
     private Item[] q = (Item[]) new Object[2];
     // size of queue
     private int n;
+    // number of changes to the queue, so that its iterators can detect them
+    private int modCount;
 
     // Constructs an empty random queue.
     public ResizingArrayRandomQueue() {
@@ -37,6 +41,7 @@ public class ResizingArrayRandomQueue<Item> implements Iterable<Item> {
         }
         q[n] = item;
         n++;
+        modCount++;
     }
 
     // Returns a random item from this queue.
@@ -59,11 +64,53 @@ public class ResizingArrayRandomQueue<Item> implements Iterable<Item> {
             resize(q.length / 2);
         }
         n--;
+        modCount++;
 
         return item; // Return the stored item.
     }
 
-    // Returns an independent iterator to iterate over the items in this queue in random order.
+    // Returns k items chosen independently and uniformly at random (with replacement).
+    public Iterable<Item> sample(int k) {
+        if (k < 0) throw new IllegalArgumentException("Illegal k");
+        if (k > 0 && isEmpty()) throw new NoSuchElementException("Random queue is empty");
+        Item[] items = (Item[]) new Object[k];
+        for (int i = 0; i < k; i++) {
+            items[i] = q[StdRandom.uniform(n)];
+        }
+        return Arrays.asList(items);
+    }
+
+    // Removes and returns k random items (without replacement). The items are drawn by a partial
+    // Fisher-Yates shuffle that swaps each chosen item with the last one still in the queue, and
+    // the array is shrunk at most once, at the end.
+    public Iterable<Item> dequeue(int k) {
+        if (k < 0) throw new IllegalArgumentException("Illegal k");
+        if (k > n) throw new NoSuchElementException("Random queue has fewer than k items");
+        Item[] items = (Item[]) new Object[k];
+        for (int i = 0; i < k; i++) {
+            int last = n - 1 - i;
+            int r = StdRandom.uniform(last + 1);
+            items[i] = q[r];
+            q[r] = q[last];
+            q[last] = null;  // Nullify the last item to prevent loitering.
+        }
+        n -= k;
+        modCount++;
+        // Halve while at most a quarter full, down to the capacity of 2 that draining the queue
+        // with dequeue() leaves behind.
+        int capacity = q.length;
+        while (capacity > 2 && n <= capacity / 4) {
+            capacity /= 2;
+        }
+        if (capacity != q.length) {
+            resize(capacity);
+        }
+        return Arrays.asList(items);
+    }
+
+    // Returns an independent iterator to iterate over the items in this queue in random order. The
+    // iterator reads the queue in place, and throws a ConcurrentModificationException if the queue
+    // is changed while it is in use.
     public Iterator<Item> iterator() {
         RandomQueueIterator iterator = new RandomQueueIterator();
         return iterator;
@@ -79,28 +126,25 @@ public class ResizingArrayRandomQueue<Item> implements Iterable<Item> {
         return n > 0 ? "[" + sb.substring(0, sb.length() - 2) + "]" : "[]";
     }
 
-    // An iterator, doesn't implement remove() since it's optional.
+    // An iterator, doesn't implement remove() since it's optional. It draws the indices of the
+    // items from a RandomPermutation, which shuffles them lazily, one step per next(): drawing the
+    // first k items costs O(k) time and memory, and a full pass O(n) time and about 6n bytes.
     private class RandomQueueIterator implements Iterator<Item> {
-            private Item[] items = (Item[]) new Object[n]; // Assuming items is the array for shuffling
-            private int current = 0; // Assuming current is the index of the next item to return
-
-            // Constructs an iterator.
-            public RandomQueueIterator() {
-                for (int j = 0; j < n; j++) {
-                    items[j] = q[j];
-                }
-                StdRandom.shuffle(items);
-            }
+            private final int expected = modCount; // modCount the iterator was created at
+            private final RandomPermutation order = new RandomPermutation(n); // indices yet to draw
 
             // Returns true if there are more items to iterate, and false otherwise.
             public boolean hasNext() {
-                return current < n;
+                return order.hasNext();
             }
 
             // Returns the next item.
             public Item next() {
+                if (modCount != expected) {
+                    throw new ConcurrentModificationException("Random queue was modified");
+                }
                 if (!hasNext()) throw new NoSuchElementException("Iterator is empty");
-                return items[current++];
+                return q[order.next()];
             }
         }
 
@@ -1,40 +1,138 @@
-import stdlib.StdOut;
+import java.util.HashSet;
+
 import stdlib.StdRandom;
 
 public class Sample {
     // Entry point.
-    // Accept lo (int), hi (int), k (int), and mode (String) as command-line arguments
+    // Accept lo (int), hi (int), k (int), and mode (String) as command-line arguments, where mode
+    // is "+" (with replacement), "-" (without replacement) or "f" (without replacement, using
+    // O(k) memory); or accept k (int) and mode "r" to sample k words from standard input without
+    // replacement, using O(k) memory
     public static void main(String[] args) {
+        String mode = args[args.length - 1];
+        FastOut out = new FastOut();
+
+        // Handle reservoir sampling from standard input
+        if (mode.equals("r")) {
+            int k = Integer.parseInt(args[0]);
+            for (String w : reservoir(new FastIn(), k)) {
+                out.println(w);
+            }
+            out.flush();
+            return;
+        }
+
         int lo = Integer.parseInt(args[0]);
         int hi = Integer.parseInt(args[1]);
         int k = Integer.parseInt(args[2]);
-        String mode = args[3];
 
         // Validate mode argument
-        if (!mode.equals("+") && !mode.equals("-")) {
+        if (!mode.equals("+") && !mode.equals("-") && !mode.equals("f")) {
             throw new IllegalArgumentException("Illegal mode");
         }
 
-        // Initialize random queue
-        ResizingArrayRandomQueue<Integer> q = new ResizingArrayRandomQueue<Integer>();
-
         // Handle sampling with replacement
         if (mode.equals("+")) {
             for (int i = 0; i < k; i++) {
                 // Generate and directly print random number since it's with replacement
-                StdOut.println(StdRandom.uniform(lo, hi + 1));
+                out.println(StdRandom.uniform(lo, hi + 1));
             }
         }
         // Handle sampling without replacement
         else if (mode.equals("-")) {
-            // Enqueue all numbers in [lo, hi] to the queue
-            for (int i = lo; i <= hi; i++) {
-                q.enqueue(i);
+            // Enqueue all numbers in [lo, hi] to an int queue sized for them up front, so no
+            // item is boxed and the array never has to grow
+            IntRandomQueue q = new IntRandomQueue((int) Math.max(1, Math.min((long) hi - lo + 1,
+                    Integer.MAX_VALUE - 8)));
+            for (long i = lo; i <= hi; i++) {
+                q.enqueue((int) i);
             }
-            // Dequeue and print k elements
-            for (int i = 0; i < k; i++) {
-                StdOut.println(q.dequeue());
+            // Dequeue k elements in one batch and print them
+            for (int x : q.dequeue(k)) {
+                out.println(x);
+            }
+        }
+        // Handle sampling without replacement in O(k) memory
+        else if (mode.equals("f")) {
+            for (long x : floyd(lo, hi, k)) {
+                out.println(x);
             }
         }
+        out.flush();
+    }
+
+    // Returns k distinct integers from [lo, hi], in random order, using Floyd's algorithm: for
+    // each j in the last k positions of the range, pick t from [0, j] and take t, or j if t was
+    // already taken. Uses O(k) time and memory however wide the range is.
+    private static long[] floyd(int lo, int hi, int k) {
+        long width = (long) hi - lo + 1;
+        if (k < 0 || k > width) {
+            throw new IllegalArgumentException("Illegal k");
+        }
+        HashSet<Long> taken = new HashSet<Long>();
+        long[] chosen = new long[k];
+        int count = 0;
+        for (long j = width - k; j < width; j++) {
+            // The range may be wider than an int, so draw longs.
+            long t = uniform(j + 1);
+            long x = taken.add(t) ? t : j;
+            if (x == j) {
+                taken.add(j);
+            }
+            chosen[count++] = lo + x;
+        }
+        // Floyd's algorithm picks a uniform set but not a uniform order, so shuffle.
+        for (int i = k - 1; i > 0; i--) {
+            int r = StdRandom.uniform(i + 1);
+            long swap = chosen[r];
+            chosen[r] = chosen[i];
+            chosen[i] = swap;
+        }
+        return chosen;
+    }
+
+    // Returns min(k, m) distinct words chosen uniformly at random from the m words in in, in
+    // random order, holding only k words at a time (reservoir sampling).
+    private static String[] reservoir(FastIn in, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Illegal k");
+        }
+        String[] sample = new String[k];
+        long m = 0;
+        while (!in.isEmpty()) {
+            String w = in.readString();
+            if (m < k) {
+                sample[(int) m] = w;
+            } else {
+                // Keep the (m + 1)-th word with probability k / (m + 1).
+                long r = uniform(m + 1);
+                if (r < k) {
+                    sample[(int) r] = w;
+                }
+            }
+            m++;
+        }
+        int size = (int) Math.min(k, m);
+        String[] result = new String[size];
+        System.arraycopy(sample, 0, result, 0, size);
+        // The reservoir keeps early words in input order, so shuffle.
+        StdRandom.shuffle(result);
+        return result;
+    }
+
+    // Returns a long chosen uniformly at random from [0, n), for 0 < n <= 2^60. StdRandom only
+    // draws ints, so for n past the int range two 30-bit draws are joined into a 60-bit one, and
+    // draws from the incomplete last multiple of n are rejected so that every residue is equally
+    // likely.
+    private static long uniform(long n) {
+        if (n <= Integer.MAX_VALUE) {
+            return StdRandom.uniform((int) n);
+        }
+        long limit = (1L << 60) - (1L << 60) % n;
+        long x;
+        do {
+            x = (long) StdRandom.uniform(1 << 30) << 30 | StdRandom.uniform(1 << 30);
+        } while (x >= limit);
+        return x % n;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,60 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
 import dsa.LinkedStack;
-import stdlib.StdIn;
-import stdlib.StdOut;
+import dsa.MinPQ;
 
 public class Sort {
+    private static final int FAN_IN = 64;  // Most runs the external sort merges at once.
+
+    // Accepts an optional mode as command-line arguments: none, to sort the words from standard
+    // input by insertion into a deque; "-x [chunk]", to sort them by an external merge sort
+    // that holds at most chunk words (default 1000000) in memory at a time; or "-p [threads]",
+    // to sort them in memory by a parallel multikey quicksort on threads threads (default: one
+    // per available processor); "-c", to write each distinct word once, in order, preceded by
+    // its count; or "-k k", to write the k most frequent words, most frequent first, preceded by
+    // their counts.
     public static void main(String[] args) {
+        FastIn in = new FastIn();
+        FastOut out = new FastOut();
+        if (args.length > 0 && args[0].equals("-x")) {
+            int chunk = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+            externalSort(in, out, chunk);
+        } else if (args.length > 0 && args[0].equals("-p")) {
+            int threads = args.length > 1 ? Integer.parseInt(args[1])
+                    : Runtime.getRuntime().availableProcessors();
+            parallelSort(in, out, threads);
+        } else if (args.length > 0 && args[0].equals("-c")) {
+            uniqueCounts(in, out);
+        } else if (args.length > 0 && args[0].equals("-k")) {
+            topK(in, out, Integer.parseInt(args[1]));
+        } else {
+            dequeSort(in, out);
+        }
+        out.flush();
+    }
+
+    // Sorts the words from in by inserting each into its place in a deque, writing them to out.
+    private static void dequeSort(FastIn in, FastOut out) {
         // Create a deque and a stack.
         LinkedDeque<String> d = new LinkedDeque<String>();
         LinkedStack<String> s = new LinkedStack<String>();
         // Read words from standard input and add them to the deque.
-        while (!StdIn.isEmpty()) {
-            String w = StdIn.readString();
+        while (!in.isEmpty()) {
+            String w = in.readString();
             if (d.isEmpty()) {
                 d.addFirst(w);
             } else {
@@ -38,11 +83,334 @@ public class Sort {
 
         // Write the words from d to standard output.
         while (!d.isEmpty()) {
-            StdOut.println(d.removeFirst());
+            out.println(d.removeFirst());
+        }
+    }
+
+    // Sorts the words from in to out in O(n log n) time with at most chunk words in memory:
+    // each chunk is sorted and spilled to a temporary file as a sorted run, and the runs are then
+    // merged through a priority queue holding the current word of each run. At most FAN_IN runs
+    // are open at a time: while there are more, the oldest FAN_IN are merged into a new run.
+    private static void externalSort(FastIn in, FastOut out, int chunk) {
+        if (chunk <= 0) {
+            throw new IllegalArgumentException("Illegal chunk");
+        }
+        String[] words = new String[chunk];
+        int count = 0;
+        ArrayDeque<File> runs = new ArrayDeque<File>();
+        try {
+            while (!in.isEmpty()) {
+                if (count == chunk) {
+                    runs.add(spill(words, count));
+                    count = 0;
+                }
+                words[count++] = in.readString();
+            }
+            // If everything fit in one chunk, there is nothing to merge.
+            if (runs.isEmpty()) {
+                Arrays.sort(words, 0, count);
+                for (int i = 0; i < count; i++) {
+                    out.println(words[i]);
+                }
+                return;
+            }
+            if (count > 0) {
+                runs.add(spill(words, count));
+            }
+            words = null;  // Let the chunk be collected during the merge.
+            while (runs.size() > FAN_IN) {
+                mergeOldest(runs);
+            }
+            merge(runs, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    // Sorts words[0..count - 1] and writes them, one per line, to a new temporary file.
+    private static File spill(String[] words, int count) throws IOException {
+        Arrays.sort(words, 0, count);
+        File run = File.createTempFile("sort", ".run");
+        try (BufferedWriter out = Files.newBufferedWriter(run.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                out.write(words[i]);
+                out.newLine();
+                words[i] = null;
+            }
+        }
+        return run;
+    }
+
+    // Merges the oldest FAN_IN runs into a new run at the back of runs, and deletes them.
+    private static void mergeOldest(ArrayDeque<File> runs) throws IOException {
+        File merged = File.createTempFile("sort", ".run");
+        runs.addLast(merged);  // So that it is deleted even if the merge fails.
+        ArrayList<File> group = new ArrayList<File>();
+        for (int i = 0; i < FAN_IN; i++) {
+            group.add(runs.removeFirst());
+        }
+        try (OutputStream os = Files.newOutputStream(merged.toPath())) {
+            FastOut out = new FastOut(os);
+            merge(group, out);
+            out.flush();
+        } finally {
+            for (File run : group) {
+                run.delete();
+            }
+        }
+    }
+
+    // Merges the sorted runs to out.
+    private static void merge(Iterable<File> runs, FastOut out) throws IOException {
+        MinPQ<Run> pq = new MinPQ<Run>();
+        try {
+            for (File file : runs) {
+                Run run = new Run(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8));
+                if (run.advance()) {
+                    pq.insert(run);
+                } else {
+                    run.in.close();
+                }
+            }
+            while (!pq.isEmpty()) {
+                Run run = pq.delMin();
+                out.println(run.word);
+                if (run.advance()) {
+                    pq.insert(run);
+                } else {
+                    run.in.close();
+                }
+            }
+        } finally {
+            while (!pq.isEmpty()) {
+                pq.delMin().in.close();
+            }
+        }
+    }
+
+    // Sorts the words from in to out in memory with a multikey (three-way radix) quicksort, run
+    // on a fork-join pool of the given number of threads.
+    private static void parallelSort(FastIn in, FastOut out, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Illegal threads");
+        }
+        String[] words = new String[1024];
+        int count = 0;
+        while (!in.isEmpty()) {
+            if (count == words.length) {
+                words = Arrays.copyOf(words, 2 * count);
+            }
+            words[count++] = in.readString();
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new MultikeySort(words, 0, count - 1, 0));
+        } finally {
+            pool.shutdown();
+        }
+        for (int i = 0; i < count; i++) {
+            out.println(words[i]);
+        }
+    }
+
+    // Writes each distinct word from in to out once, in sorted order, as "count word". The words
+    // are counted in one pass with a hash table, so only the distinct words are sorted.
+    private static void uniqueCounts(FastIn in, FastOut out) {
+        HashMap<String, Integer> counts = count(in);
+        String[] words = counts.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        for (String w : words) {
+            out.println(counts.get(w) + " " + w);
+        }
+    }
+
+    // Writes the k most frequent words from in to out as "count word", most frequent first and
+    // ties in sorted order. The words are counted in one pass with a hash table, and the k best
+    // are kept in a priority queue of at most k + 1 entries, in O(n + u log k) time for u
+    // distinct words.
+    private static void topK(FastIn in, FastOut out, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Illegal k");
+        }
+        HashMap<String, Integer> counts = count(in);
+        MinPQ<WordCount> pq = new MinPQ<WordCount>();
+        for (String w : counts.keySet()) {
+            pq.insert(new WordCount(w, counts.get(w)));
+            if (pq.size() > k) {
+                pq.delMin();  // Drop the least frequent entry.
+            }
+        }
+        WordCount[] best = new WordCount[pq.size()];
+        for (int i = best.length - 1; i >= 0; i--) {
+            best[i] = pq.delMin();
+        }
+        for (WordCount wc : best) {
+            out.println(wc.count + " " + wc.word);
+        }
+    }
+
+    // Returns the number of times each word occurs in in.
+    private static HashMap<String, Integer> count(FastIn in) {
+        HashMap<String, Integer> counts = new HashMap<String, Integer>();
+        while (!in.isEmpty()) {
+            String w = in.readString();
+            Integer c = counts.get(w);
+            counts.put(w, c == null ? 1 : c + 1);
         }
+        return counts;
     }
 
     private static boolean less(String v, String w) {
         return v.compareTo(w) < 0;
     }
+
+    // Sorts a[lo..hi], whose words all share their first d characters, by partitioning on the
+    // d-th character into less, equal and greater parts (Bentley and Sedgewick's multikey
+    // quicksort). Parts above FORK_CUTOFF words are sorted as separate fork-join tasks. Characters
+    // are compared as UTF-16 code units, with the end of a word below every character, which is
+    // exactly the order of String.compareTo().
+    private static class MultikeySort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int INSERTION_CUTOFF = 16;  // Below this, use insertion sort.
+        private static final int FORK_CUTOFF = 8192;  // Above this, sort parts in parallel.
+        private final String[] a;
+        private final int lo;
+        private final int hi;
+        private final int d;
+
+        // Constructs a task to sort a[lo..hi] from character d onward.
+        public MultikeySort(String[] a, int lo, int hi, int d) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.d = d;
+        }
+
+        protected void compute() {
+            ArrayList<MultikeySort> forked = new ArrayList<MultikeySort>();
+            int lo = this.lo;
+            int hi = this.hi;
+            int d = this.d;
+            // Sort the lower and upper parts as subtasks, but carry on with the equal part in this
+            // loop, so that a long shared prefix does not cost a stack frame per character.
+            while (hi - lo >= INSERTION_CUTOFF) {
+                // A random pivot keeps already sorted input from degrading to quadratic time.
+                swap(lo, lo + ThreadLocalRandom.current().nextInt(hi - lo + 1));
+                int v = charAt(a[lo], d);
+                int lt = lo;
+                int gt = hi;
+                int i = lo + 1;
+                while (i <= gt) {
+                    int t = charAt(a[i], d);
+                    if (t < v) {
+                        swap(lt++, i++);
+                    } else if (t > v) {
+                        swap(i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                // Now a[lo..lt - 1] < v = a[lt..gt] < a[gt + 1..hi] on character d.
+                sort(new MultikeySort(a, lo, lt - 1, d), forked);
+                sort(new MultikeySort(a, gt + 1, hi, d), forked);
+                if (v < 0) {
+                    // The equal words have all ended, so they are identical.
+                    break;
+                }
+                lo = lt;
+                hi = gt;
+                d++;
+            }
+            if (hi - lo < INSERTION_CUTOFF) {
+                insertion(lo, hi);
+            }
+            for (MultikeySort task : forked) {
+                task.join();
+            }
+        }
+
+        // Forks task, adding it to forked, if it is above FORK_CUTOFF words, and otherwise runs
+        // it in this thread.
+        private static void sort(MultikeySort task, ArrayList<MultikeySort> forked) {
+            if (task.size() > FORK_CUTOFF) {
+                task.fork();
+                forked.add(task);
+            } else {
+                task.compute();
+            }
+        }
+
+        // Returns the number of words this task sorts.
+        private int size() {
+            return hi - lo + 1;
+        }
+
+        // Sorts a[lo..hi] by insertion, comparing whole words.
+        private void insertion(int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(a[j], a[j - 1]); j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        // Exchanges a[i] and a[j].
+        private void swap(int i, int j) {
+            String t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+
+        // Returns the d-th character of s, or -1 if s has only d characters.
+        private static int charAt(String s, int d) {
+            return d < s.length() ? s.charAt(d) : -1;
+        }
+    }
+
+    // A word and its count, ordered from least to most frequent, and among equally frequent
+    // words from last to first in sorted order, so that the minimum is the one to drop first.
+    private static class WordCount implements Comparable<WordCount> {
+        private final String word;
+        private final int count;
+
+        // Constructs an entry for word occurring count times.
+        public WordCount(String word, int count) {
+            this.word = word;
+            this.count = count;
+        }
+
+        // Compares this entry with that, by count and then by word in reverse.
+        public int compareTo(WordCount that) {
+            if (count != that.count) {
+                return Integer.compare(count, that.count);
+            }
+            return that.word.compareTo(word);
+        }
+    }
+
+    // A sorted run being merged, ordered by its current word.
+    private static class Run implements Comparable<Run> {
+        private final BufferedReader in;  // The rest of the run.
+        private String word;  // The current word of the run.
+
+        // Constructs a run reading from in.
+        public Run(BufferedReader in) {
+            this.in = in;
+        }
+
+        // Reads the next word into word, returning false if the run is exhausted.
+        public boolean advance() throws IOException {
+            word = in.readLine();
+            return word != null;
+        }
+
+        // Compares this run with that by their current words.
+        public int compareTo(Run that) {
+            return word.compareTo(that.word);
+        }
+    }
 }
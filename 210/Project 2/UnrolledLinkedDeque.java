@@ -0,0 +1,220 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// A deque implemented using a doubly-linked list of blocks, each holding up to BLOCK items, with
+// the same API as LinkedDeque. Items fill the first block from head to the end of the block, the
+// last block from its start up to tail, and every block in between completely. So addFirst() and
+// addLast() allocate a node only once per BLOCK items, no item is ever copied, and iteration is
+// sequential within a block.
+public class UnrolledLinkedDeque<Item> implements Iterable<Item> {
+    private static final int BLOCK = 64;  // Number of items per block.
+    private Node first, last;  // Pointers to the first and last blocks of the deque.
+    private int head;  // Index of the first item in first.
+    private int tail;  // Index one past the last item in last.
+    private Node spare;  // An emptied block kept for reuse, so that a deque that keeps crossing
+                         // a block boundary does not allocate on every crossing.
+    private int n;  // Size of the deque.
+
+    // Constructor: Initializes an empty deque.
+    public UnrolledLinkedDeque() {
+        n = 0;
+    }
+
+    // Checks if the deque is empty.
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // Returns the number of items in the deque.
+    public int size() {
+        return n;
+    }
+
+    // Adds an item to the front of the deque.
+    public void addFirst(Item item) {
+        if (item == null) throw new NullPointerException("item is null");
+        if (isEmpty()) {
+            first = last = block();
+            head = tail = BLOCK / 2;  // Start mid-block, so either end can grow.
+        } else if (head == 0) {
+            Node oldfirst = first;
+            first = block();
+            first.next = oldfirst;
+            oldfirst.prev = first;
+            head = BLOCK;
+        }
+        first.items[--head] = item;
+        n++;
+    }
+
+    // Adds an item to the back of the deque.
+    public void addLast(Item item) {
+        if (item == null) throw new NullPointerException("item is null");
+        if (isEmpty()) {
+            first = last = block();
+            head = tail = BLOCK / 2;  // Start mid-block, so either end can grow.
+        } else if (tail == BLOCK) {
+            Node oldlast = last;
+            last = block();
+            last.prev = oldlast;
+            oldlast.next = last;
+            tail = 0;
+        }
+        last.items[tail++] = item;
+        n++;
+    }
+
+    // Retrieves the item at the front without removal.
+    public Item peekFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        return first.items[head];
+    }
+
+    // Removes and returns the item at the front of the deque.
+    public Item removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        Item item = first.items[head];
+        first.items[head++] = null;  // Avoid loitering.
+        n--;
+        if (isEmpty()) {
+            release(first);
+            first = last = null;
+        } else if (head == BLOCK) {
+            Node oldfirst = first;
+            first = first.next;
+            first.prev = null;
+            release(oldfirst);
+            head = 0;
+        }
+        return item;
+    }
+
+    // Retrieves the item at the back without removal.
+    public Item peekLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        return last.items[tail - 1];
+    }
+
+    // Removes and returns the item at the back of the deque.
+    public Item removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        Item item = last.items[--tail];
+        last.items[tail] = null;  // Avoid loitering.
+        n--;
+        if (isEmpty()) {
+            release(last);
+            first = last = null;
+        } else if (tail == 0) {
+            Node oldlast = last;
+            last = last.prev;
+            last.next = null;
+            release(oldlast);
+            tail = BLOCK;
+        }
+        return item;
+    }
+
+    // Provides an iterator to access items from front to back.
+    public Iterator<Item> iterator() {
+        return new DequeIterator();
+    }
+
+    // Returns a string representation of the deque.
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Item item : this) {
+            sb.append(item);
+            sb.append(", ");
+        }
+        return n > 0 ? "[" + sb.substring(0, sb.length() - 2) + "]" : "[]";
+    }
+
+    // Returns an empty, unlinked block, reusing the spare one if there is one.
+    private Node block() {
+        if (spare == null) {
+            return new Node();
+        }
+        Node node = spare;
+        spare = null;
+        return node;
+    }
+
+    // Keeps the emptied block node as the spare, unlinked.
+    private void release(Node node) {
+        node.next = null;
+        node.prev = null;
+        spare = node;
+    }
+
+    // Inner class: iterator for the deque.
+    private class DequeIterator implements Iterator<Item> {
+        Node current = first;  // The block holding the next item.
+        int i = head;  // Index of the next item in current.
+        int remaining = n;  // Number of items left to iterate.
+
+        // Returns true if there are more items to iterate, and false otherwise.
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        // Retrieves the next item in the iterator.
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException("Iterator is empty");
+            if (i == BLOCK) {
+                current = current.next;  // Move the iterator to the next block.
+                i = 0;
+            }
+            remaining--;
+            return current.items[i++];
+        }
+    }
+
+    // Inner class: block of the deque.
+    private class Node {
+        private final Item[] items = (Item[]) new Object[BLOCK];  // The items in the block.
+        private Node next;  // Pointer to the next block.
+        private Node prev;  // Pointer to the previous block.
+    }
+
+    // Unit tests the data type. Applies m random operations (default 1000000) to this deque and to
+    // a LinkedDeque, checking that every item peeked at or removed from either end matches, and
+    // then that both iterate over the same items. The odds of adding rather than removing change
+    // every 1000 operations, so the size swings back and forth across many 64-item blocks.
+    public static void main(String[] args) {
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        UnrolledLinkedDeque<Integer> deque = new UnrolledLinkedDeque<Integer>();
+        LinkedDeque<Integer> expected = new LinkedDeque<Integer>();
+        boolean matched = true;
+        double p = 0.5;  // Probability that an operation adds an item.
+        for (int i = 0; i < m; i++) {
+            if (i % 1000 == 0) {
+                p = StdRandom.uniform();
+            }
+            if (expected.isEmpty() || StdRandom.bernoulli(p)) {
+                if (StdRandom.bernoulli(0.5)) {
+                    deque.addFirst(i);
+                    expected.addFirst(i);
+                } else {
+                    deque.addLast(i);
+                    expected.addLast(i);
+                }
+            } else if (StdRandom.bernoulli(0.5)) {
+                matched &= expected.peekFirst().equals(deque.peekFirst());
+                matched &= expected.removeFirst().equals(deque.removeFirst());
+            } else {
+                matched &= expected.peekLast().equals(deque.peekLast());
+                matched &= expected.removeLast().equals(deque.removeLast());
+            }
+            matched &= deque.size() == expected.size();
+        }
+        Iterator<Integer> it = expected.iterator();
+        for (Integer x : deque) {
+            matched &= it.hasNext() && it.next().equals(x);
+        }
+        matched &= !it.hasNext();
+        StdOut.println("Items left: " + deque.size());
+        StdOut.println("All " + m + " operations matched LinkedDeque? " + matched);
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.NoSuchElementException;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// A data type to represent a weighted random queue, in which sample() and dequeue() pick each item
+// with probability proportional to its weight. Like ResizingArrayRandomQueue, the items live in a
+// resizing array; alongside them a Fenwick (binary indexed) tree over the weights finds the item
+// at a given cumulative weight, so enqueue(), sample() and dequeue() all run in O(log n).
+public class WeightedRandomQueue<Item> {
+    private Item[] q = (Item[]) new Object[2];
+    // weights[i] = weight of q[i]
+    private double[] weights = new double[2];
+    // Fenwick tree over weights, 1-based: tree[i] = sum of weights[i - (i & -i) .. i - 1]
+    private double[] tree = new double[3];
+    // size of queue
+    private int n;
+
+    // Constructs an empty weighted random queue.
+    public WeightedRandomQueue() {
+        n = 0;
+    }
+
+    // Returns true if this queue is empty, and false otherwise.
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // Returns the number of items in this queue.
+    public int size() {
+        return n;
+    }
+
+    // Adds item with the given (positive, finite) weight to the end of this queue.
+    public void enqueue(Item item, double weight) {
+        if (item == null) throw new NullPointerException("item is null");
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Illegal weight");
+        }
+        if (q.length == n) {
+            resize(2 * q.length);
+        }
+        q[n] = item;
+        weights[n] = weight;
+        update(n, weight);
+        n++;
+    }
+
+    // Returns an item from this queue, chosen with probability proportional to its weight.
+    public Item sample() {
+        if (isEmpty()) throw new NoSuchElementException("Random queue is empty");
+        return q[pick()];
+    }
+
+    // Removes and returns an item from this queue, chosen with probability proportional to its
+    // weight.
+    public Item dequeue() {
+        if (isEmpty()) throw new NoSuchElementException("Random queue is empty");
+        int r = pick();
+        int last = n - 1;
+        Item item = q[r];
+        // Move the last item into the vacated slot, and its weight with it.
+        update(r, weights[last] - weights[r]);
+        update(last, -weights[last]);
+        q[r] = q[last];
+        weights[r] = weights[last];
+        q[last] = null;  // Nullify the last item to prevent loitering.
+        weights[last] = 0;
+        n--;
+        if (n > 0 && n == q.length / 4) {
+            resize(q.length / 2);
+        }
+        return item;
+    }
+
+    // Returns the total weight of the items in this queue.
+    public double totalWeight() {
+        double sum = 0;
+        for (int i = n; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Returns the index of the item at a uniformly random point of the cumulative weight, by
+    // descending the Fenwick tree.
+    private int pick() {
+        double rem = StdRandom.uniform() * totalWeight();
+        int pos = 0;
+        for (int step = Integer.highestOneBit(q.length); step > 0; step >>= 1) {
+            if (pos + step <= n && tree[pos + step] <= rem) {
+                pos += step;
+                rem -= tree[pos];
+            }
+        }
+        // Rounding can carry the point past the last item.
+        return Math.min(pos, n - 1);
+    }
+
+    // Adds delta to the weight at index i in the Fenwick tree.
+    private void update(int i, double delta) {
+        for (int j = i + 1; j < tree.length; j += j & -j) {
+            tree[j] += delta;
+        }
+    }
+
+    // Resizes the underlying arrays and rebuilds the Fenwick tree in O(n), which also discards
+    // any rounding error accumulated by updates.
+    private void resize(int max) {
+        Item[] temp = (Item[]) new Object[max];
+        double[] tempWeights = new double[max];
+        System.arraycopy(q, 0, temp, 0, n);
+        System.arraycopy(weights, 0, tempWeights, 0, n);
+        q = temp;
+        weights = tempWeights;
+        tree = new double[max + 1];
+        for (int i = 1; i <= n; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= max) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // Unit tests the data type.
+    public static void main(String[] args) {
+        // Sample items 1 through 5, with weights equal to the items, and compare the observed
+        // frequencies with the weights; each must lie within 4 standard deviations.
+        WeightedRandomQueue<Integer> q = new WeightedRandomQueue<Integer>();
+        for (int i = 1; i <= 5; i++) {
+            q.enqueue(i, i);
+        }
+        int trials = 150000;
+        int[] counts = new int[6];
+        for (int t = 0; t < trials; t++) {
+            counts[q.sample()]++;
+        }
+        boolean close = true;
+        for (int i = 1; i <= 5; i++) {
+            double p = i / q.totalWeight();
+            double expected = trials * p;
+            close &= Math.abs(counts[i] - expected) <= 4 * Math.sqrt(trials * p * (1 - p));
+            StdOut.printf("item %d: expected %.0f, sampled %d\n", i, expected, counts[i]);
+        }
+        StdOut.println("frequencies match weights? " + close);
+
+        // Enqueue random items with random weights, and check that dequeue() returns each once.
+        q = new WeightedRandomQueue<Integer>();
+        int sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            int r = StdRandom.uniform(10000);
+            q.enqueue(r, 1 + StdRandom.uniform(100));
+            sum += r;
+        }
+        int dequeSumQ = 0;
+        while (q.size() > 0) {
+            dequeSumQ += q.dequeue();
+        }
+        StdOut.println("sum       = " + sum);
+        StdOut.println("dequeSumQ = " + dequeSumQ);
+        StdOut.println("dequeSumQ == sum? " + (dequeSumQ == sum));
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import stdlib.StdOut;
+import stdlib.StdRandom;
+
+// A lock-free work-stealing deque (Chase and Lev, "Dynamic Circular Work-Stealing Deque", 2005).
+// One owner thread adds and removes items at the front with addFirst() and removeFirst(); any
+// number of other threads may steal items from the back with removeLast(). The owner's operations
+// touch only its own end and need a compare-and-set only when it races a thief for the last item.
+//
+// Items live in a circular array indexed by ever-increasing logical positions: the back is top,
+// the front is bottom - 1. The owner grows the array when it is full; it never shrinks.
+public class WorkStealingDeque<Item> {
+    private final AtomicLong top = new AtomicLong();  // Position of the item at the back.
+    private volatile long bottom;  // Position one past the item at the front.
+    private volatile AtomicReferenceArray<Item> array;  // The circular array of items.
+
+    // Constructor: Initializes an empty deque.
+    public WorkStealingDeque() {
+        array = new AtomicReferenceArray<Item>(16);
+    }
+
+    // Checks if the deque is empty. Only a snapshot when other threads are active.
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Returns the number of items in the deque. Only a snapshot when other threads are active.
+    public int size() {
+        long b = bottom;
+        long t = top.get();
+        return (int) Math.max(0, b - t);
+    }
+
+    // Adds an item to the front of the deque. Must only be called by the owner thread.
+    public void addFirst(Item item) {
+        if (item == null) throw new NullPointerException("item is null");
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<Item> a = array;
+        if (b - t >= a.length()) {
+            a = grow(a, t, b);
+        }
+        a.set((int) (b & (a.length() - 1)), item);
+        bottom = b + 1;  // Publish the item to thieves.
+    }
+
+    // Removes and returns the item at the front of the deque. Must only be called by the owner
+    // thread.
+    public Item removeFirst() {
+        long b = bottom - 1;
+        AtomicReferenceArray<Item> a = array;
+        bottom = b;  // Claim the front item before looking at top.
+        long t = top.get();
+        if (t > b) {
+            bottom = t;  // The deque was empty; restore it.
+            throw new NoSuchElementException("Deque is empty");
+        }
+        int i = (int) (b & (a.length() - 1));
+        Item item = a.get(i);
+        if (t < b) {
+            a.set(i, null);  // Avoid loitering; no thief can reach this position.
+            return item;
+        }
+        // Exactly one item is left, so race any thieves for it.
+        boolean won = top.compareAndSet(t, t + 1);
+        bottom = t + 1;
+        if (!won) throw new NoSuchElementException("Deque is empty");
+        return item;
+    }
+
+    // Removes and returns the item at the back of the deque. May be called by any thread.
+    public Item removeLast() {
+        while (true) {
+            long t = top.get();
+            long b = bottom;
+            if (t >= b) throw new NoSuchElementException("Deque is empty");
+            AtomicReferenceArray<Item> a = array;
+            Item item = a.get((int) (t & (a.length() - 1)));
+            if (top.compareAndSet(t, t + 1)) {
+                return item;
+            }
+            // Lost the race to another thief or to the owner; try again.
+        }
+    }
+
+    // Copies the items at positions [t, b) of a into an array twice as long and publishes it.
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> a, long t, long b) {
+        AtomicReferenceArray<Item> temp = new AtomicReferenceArray<Item>(2 * a.length());
+        for (long i = t; i < b; i++) {
+            temp.set((int) (i & (temp.length() - 1)), a.get((int) (i & (a.length() - 1))));
+        }
+        array = temp;
+        return temp;
+    }
+
+    // A thread that steals items from the back of a deque until told to stop and the deque is
+    // empty, counting how many times it removed each item.
+    private static class Thief extends Thread {
+        private final WorkStealingDeque<Integer> deque;
+        private final AtomicIntegerArray removed;
+        private volatile boolean done;
+        private int stolen;
+
+        public Thief(WorkStealingDeque<Integer> deque, AtomicIntegerArray removed) {
+            this.deque = deque;
+            this.removed = removed;
+        }
+
+        public void run() {
+            while (!done || !deque.isEmpty()) {
+                try {
+                    removed.incrementAndGet(deque.removeLast());
+                    stolen++;
+                } catch (NoSuchElementException e) {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    // Unit tests the data type. The owner adds m items, removing some from the front as it goes,
+    // while t thieves steal from the back; afterwards every item must have been removed exactly
+    // once.
+    public static void main(String[] args) throws InterruptedException {
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int t = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<Integer>();
+        AtomicIntegerArray removed = new AtomicIntegerArray(m);
+        Thief[] thieves = new Thief[t];
+        for (int k = 0; k < t; k++) {
+            thieves[k] = new Thief(deque, removed);
+            thieves[k].start();
+        }
+        long start = System.nanoTime();
+        int kept = 0;
+        for (int i = 0; i < m; i++) {
+            deque.addFirst(i);
+            if (StdRandom.bernoulli(0.5)) {
+                try {
+                    removed.incrementAndGet(deque.removeFirst());
+                    kept++;
+                } catch (NoSuchElementException e) {
+                    // A thief took the last item first.
+                }
+            }
+        }
+        while (!deque.isEmpty()) {
+            try {
+                removed.incrementAndGet(deque.removeFirst());
+                kept++;
+            } catch (NoSuchElementException e) {
+                // A thief took the last item first.
+            }
+        }
+        int stolen = 0;
+        for (Thief thief : thieves) {
+            thief.done = true;
+            thief.join();
+            stolen += thief.stolen;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        boolean once = true;
+        for (int i = 0; i < m; i++) {
+            once &= removed.get(i) == 1;
+        }
+        StdOut.printf("Owner removed %d items, %d thieves stole %d\n", kept, t, stolen);
+        StdOut.println("Each of the " + m + " items removed exactly once? " + once);
+        StdOut.printf("%.0f items/second\n", m / seconds);
+    }
+}